@@ -0,0 +1,13 @@
+package com.jonghak.springbootwebflux;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class SpringbootWebfluxApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(SpringbootWebfluxApplication.class, args);
+    }
+
+}
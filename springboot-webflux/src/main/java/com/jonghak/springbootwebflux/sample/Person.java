@@ -0,0 +1,14 @@
+package com.jonghak.springbootwebflux.sample;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter @Setter @ToString
+public class Person {
+
+    private Long id;
+
+    private String name;
+
+}
@@ -0,0 +1,18 @@
+package com.jonghak.springbootwebflux.sample;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC 엔티티 (JPA 가 아니라 스키마는 schema.sql 로 만든다)
+ */
+@Table("person_entity")
+@Data
+public class PersonEntity {
+
+    @Id
+    private Long id;
+
+    private String name;
+}
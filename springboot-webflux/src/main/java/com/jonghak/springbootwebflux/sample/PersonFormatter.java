@@ -0,0 +1,26 @@
+package com.jonghak.springbootwebflux.sample;
+
+import org.springframework.format.Formatter;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * WebFlux 도 스프링 부트가 @Component 로 등록된 Formatter 를 알아서 적용해준다.
+ */
+@Component
+public class PersonFormatter implements Formatter<Person> {
+
+    @Override
+    public Person parse(String text, Locale locale) throws ParseException {
+        Person person = new Person();
+        person.setName(text);
+        return person;
+    }
+
+    @Override
+    public String print(Person object, Locale locale) {
+        return object.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.jonghak.springbootwebflux.sample;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * 논블로킹 R2DBC 드라이버를 쓰므로 조회하는 동안 이벤트 루프 스레드를 잡고 있지 않는다.
+ */
+public interface PersonRepository extends ReactiveCrudRepository<PersonEntity, Long> {
+}
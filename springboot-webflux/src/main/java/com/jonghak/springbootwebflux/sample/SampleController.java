@@ -0,0 +1,50 @@
+package com.jonghak.springbootwebflux.sample;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * - springboot-web 의 SampleController 와 같은 API (WebFlux)
+ *  1. 톰캣 요청당 스레드 대신 Netty 이벤트 루프 스레드 몇 개가 모든 요청을 처리한다.
+ *  2. 핸들러는 블로킹하면 안 된다. DB 조회(/hellojpa)도 R2DBC 로 Mono 를 돌려준다.
+ *  3. 없는 id 는 springboot-web 과 같이 400
+ *  4. XML 컨버터(JAXB)는 옮기지 않았다. (JSON 만)
+ */
+@RestController
+public class SampleController {
+
+    private final PersonRepository personRepository;
+
+    public SampleController(PersonRepository personRepository) {
+        this.personRepository = personRepository;
+    }
+
+    @GetMapping("/hello/{name}")
+    public Mono<String> getHello(@PathVariable("name") Person person) {
+        return Mono.just("hello " + person.getName());
+    }
+
+    @GetMapping("/hello")
+    public Mono<String> getHelloParam(@RequestParam("name") Person person) {
+        return Mono.just("hello " + person.getName());
+    }
+
+    @GetMapping("/hellojpa")
+    public Mono<String> getHelloJpa(@RequestParam("id") Long id) {
+        return personRepository.findById(id)
+                .map(person -> "hello " + person.getName())
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No PersonEntity " + id)));
+    }
+
+    @GetMapping("/message")
+    public Mono<String> message(@RequestBody Mono<String> body) {
+        return body;
+    }
+
+    @GetMapping("/jsonMessage")
+    public Mono<Person> jsonMessage(@RequestBody Mono<Person> person) {
+        return person;
+    }
+}
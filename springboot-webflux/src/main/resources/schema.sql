@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS person_entity (
+    id   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255)
+);
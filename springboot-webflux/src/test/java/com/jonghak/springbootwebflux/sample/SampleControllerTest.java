@@ -0,0 +1,71 @@
+package com.jonghak.springbootwebflux.sample;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class SampleControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void hello() {
+        this.webTestClient.get().uri("/hello/jonghak")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("hello jonghak");
+
+        this.webTestClient.get().uri("/hello?name=jonghak")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("hello jonghak");
+    }
+
+    @Test
+    public void helloJpa() {
+        PersonEntity person = new PersonEntity();
+        person.setName("jonghak");
+        PersonEntity saved = personRepository.save(person).block();
+
+        this.webTestClient.get().uri("/hellojpa?id=" + saved.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("hello jonghak");
+
+        this.webTestClient.get().uri("/hellojpa?id=-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void jsonMessage() {
+        this.webTestClient.method(HttpMethod.GET).uri("/jsonMessage")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\":2022,\"name\":\"jonghak\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(2022)
+                .jsonPath("$.name").isEqualTo("jonghak");
+    }
+
+    @Test
+    public void message() {
+        this.webTestClient.method(HttpMethod.GET).uri("/message")
+                .bodyValue("hello message")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("hello message");
+    }
+}
@@ -0,0 +1,154 @@
+package com.jonghak.springbootweb.resource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * - 빌드 시점 정적 리소스 압축 (mvn process-classes 단계에서 exec-maven-plugin 으로 실행)
+ *  1. target/classes 아래 지정한 디렉토리(static, mobile)의 파일마다 .gz (그리고 brotli CLI 가 있으면 .br) 를 옆에 만든다.
+ *      ● 원본보다 작을 때만 남긴다. 이미 압축된 형식(이미지, 폰트, 압축 파일)은 건너뛴다.
+ *      ● 런타임에는 EncodedResourceResolver 가 Accept-Encoding 에 맞는 파일을 그대로 내려주므로 요청마다 압축하지 않는다.
+ *  2. 파일마다 내용 해시(md5)를 static-resources.properties 에 남긴다.
+ *      ● ManifestVersionStrategy 가 이 값으로 index-{hash}.html 같은 버전 경로를 만들고 확인한다. (런타임 해시 계산 생략)
+ *
+ * 사용법 : StaticResourcePrecompressor {outputDirectory} {dir} [{dir} ...]
+ *  ● 빌드 도구라서 src/build/java 에 두고 process-classes 단계에서 maven-antrun-plugin 의 javac 로
+ *    target/build-classes 에 따로 컴파일한다. (애플리케이션 jar 에 들어가지 않음)
+ */
+@Slf4j
+public class StaticResourcePrecompressor {
+
+    private static final List<String> SKIP_EXTENSIONS = Arrays.asList(
+            "gz", "br", "png", "jpg", "jpeg", "gif", "webp", "ico", "woff", "woff2", "zip");
+
+    private final Path root;
+
+    private final boolean brotli;
+
+    StaticResourcePrecompressor(Path root, boolean brotli) {
+        this.root = root;
+        this.brotli = brotli;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: StaticResourcePrecompressor <outputDirectory> <dir> [<dir> ...]");
+        }
+        Path root = Paths.get(args[0]);
+        StaticResourcePrecompressor precompressor = new StaticResourcePrecompressor(root, brotliAvailable());
+        Map<String, String> manifest = new TreeMap<>();
+        for (int i = 1; i < args.length; i++) {
+            Path dir = root.resolve(args[i]);
+            if (Files.isDirectory(dir)) {
+                manifest.putAll(precompressor.process(dir));
+            }
+        }
+        precompressor.writeManifest(manifest);
+        log.info("Precompressed {} static resources (brotli {})", manifest.size(), precompressor.brotli ? "on" : "off");
+    }
+
+    Map<String, String> process(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !SKIP_EXTENSIONS.contains(extensionOf(file)))
+                    .collect(Collectors.toList());
+        }
+        Map<String, String> manifest = new TreeMap<>();
+        for (Path file : files) {
+            byte[] content = Files.readAllBytes(file);
+            manifest.put(root.relativize(file).toString().replace('\\', '/'), DigestUtils.md5DigestAsHex(content));
+            gzip(file, content);
+            if (brotli) {
+                brotli(file, content.length);
+            }
+        }
+        return manifest;
+    }
+
+    private void gzip(Path file, byte[] content) throws IOException {
+        Path gz = file.resolveSibling(file.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        keepIfSmaller(gz, content.length);
+    }
+
+    private void brotli(Path file, long originalSize) throws IOException {
+        Path br = file.resolveSibling(file.getFileName() + ".br");
+        int exit = run("brotli", "--force", "--quality=11", "--output=" + br, file.toString());
+        if (exit != 0) {
+            Files.deleteIfExists(br);
+            return;
+        }
+        keepIfSmaller(br, originalSize);
+    }
+
+    private static void keepIfSmaller(Path variant, long originalSize) throws IOException {
+        if (Files.size(variant) >= originalSize) {
+            Files.delete(variant);
+        }
+    }
+
+    private void writeManifest(Map<String, String> manifest) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(root.resolve(ManifestVersionStrategy.MANIFEST), StandardCharsets.ISO_8859_1)) {
+            writer.write("# generated by " + StaticResourcePrecompressor.class.getSimpleName() + ", path=md5\n");
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            return run("brotli", "--version") == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int run(String... command) throws IOException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return -1;
+            }
+            return process.exitValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            return -1;
+        }
+    }
+
+    private static String extensionOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
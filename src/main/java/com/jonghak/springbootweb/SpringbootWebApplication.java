@@ -1,13 +1,20 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.metrics.StartupReport;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringbootWebApplication {
 
+    /**
+     * 시작 단계(빈 생성 등) 기록을 남겨두고 StartupReport 가 시작이 끝난 뒤 빈별 초기화 시간을 정리한다.
+     */
     public static void main(String[] args) {
-        SpringApplication.run(SpringbootWebApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringbootWebApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(StartupReport.CAPACITY));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,22 @@
+package com.jonghak.springbootweb.async;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * - 비동기 모드 (sample.async.enabled=true)
+ *  1. SampleController 대신 AsyncSampleController 가 등록된다. (같은 URL)
+ *  2. 핸들러 작업은 sampleTaskExecutor(BoundedTaskExecutor) 에서 실행되고 톰캣 워커는 바로 반환된다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sample.async.enabled", havingValue = "true")
+public class AsyncConfig {
+
+    @Bean
+    public BoundedTaskExecutor sampleTaskExecutor(@Value("${sample.async.pool-size:16}") int poolSize,
+                                                  @Value("${sample.async.queue-capacity:100}") int queueCapacity) {
+        return new BoundedTaskExecutor("sample-async", poolSize, queueCapacity);
+    }
+}
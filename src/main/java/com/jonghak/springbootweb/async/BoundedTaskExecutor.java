@@ -0,0 +1,85 @@
+package com.jonghak.springbootweb.async;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * - 블로킹 작업(DB 조회 등)을 톰캣 워커 대신 실행하는 고정 크기 스레드 풀
+ *  1. 스레드 수(poolSize)와 대기 큐(queueCapacity)가 모두 고정. 큐가 차면 더 받지 않고 바로 거절한다. (무한히 쌓이지 않도록)
+ *      ● 거절된 작업은 ExecutorRejectedException(503) 으로 끝난 future 를 돌려준다.
+ *  2. 큐 길이, 실행중 스레드 수, 완료/거절 건수를 getStats() 로 노출한다. (/metrics/executor, /metrics/prometheus)
+ *  3. java.util.concurrent.Executor 를 구현하지 않는다.
+ *      ● Executor 빈이 있으면 스프링 부트가 applicationTaskExecutor 를 만들지 않아서 StreamingResponseBody 등 MVC 비동기 처리가 이 풀로 섞이기 때문.
+ */
+public class BoundedTaskExecutor implements DisposableBean {
+
+    private final String name;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedTaskExecutor(String name, int poolSize, int queueCapacity) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(name + "-"),
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Task rejected from " + name);
+                });
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new ExecutorRejectedException(name, e));
+            return failed;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        stats.put("rejectedCount", rejected.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 대기 큐가 가득 차서 작업을 받지 못한 경우 503
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class ExecutorRejectedException extends RuntimeException {
+
+        public ExecutorRejectedException(String name, RejectedExecutionException cause) {
+            super("Executor " + name + " is saturated", cause);
+        }
+    }
+}
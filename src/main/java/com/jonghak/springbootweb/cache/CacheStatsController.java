@@ -0,0 +1,53 @@
+package com.jonghak.springbootweb.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caffeine 캐시의 hit/miss 카운터 조회
+ *  ● spring.cache.caffeine.spec 에 recordStats 가 있어야 카운터가 쌓인다.
+ *  ● @CacheableResponse 응답 캐시(ResponseCache)는 responses 로 나온다.
+ */
+@RestController
+public class CacheStatsController {
+
+    private final CacheManager cacheManager;
+
+    private final ResponseCache responseCache;
+
+    public CacheStatsController(CacheManager cacheManager, ResponseCache responseCache) {
+        this.cacheManager = cacheManager;
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                result.put(name, toMap(nativeCache.estimatedSize(), nativeCache.stats()));
+            }
+        }
+        result.put("responses", toMap(responseCache.estimatedSize(), responseCache.stats()));
+        return result;
+    }
+
+    private static Map<String, Object> toMap(long size, CacheStats stats) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("size", size);
+        values.put("hitCount", stats.hitCount());
+        values.put("missCount", stats.missCount());
+        values.put("hitRate", stats.hitRate());
+        values.put("evictionCount", stats.evictionCount());
+        return values;
+    }
+}
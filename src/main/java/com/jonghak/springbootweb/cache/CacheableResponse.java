@@ -0,0 +1,18 @@
+package com.jonghak.springbootweb.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 응답이 요청 값(경로 변수, 요청 파라미터, Accept)에만 달려 있는 GET 핸들러에 붙인다.
+ *  ● 인코딩된 응답 바이트를 ResponseCache 에 두고, 다음 요청부터는 핸들러(인자 변환 포함)를 실행하지 않는다.
+ *  ● 세션, 헤더, DB 상태 등 다른 값에 따라 달라지는 핸들러에는 붙이면 안 된다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableResponse {
+}
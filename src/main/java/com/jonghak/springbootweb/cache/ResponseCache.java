@@ -0,0 +1,72 @@
+package com.jonghak.springbootweb.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * - @CacheableResponse 핸들러의 인코딩된 응답 캐시
+ *  1. 값은 응답 본문 바이트 + Content-Type + ETag. 캐시에서 내려줄 때 변환기(StringHttpMessageConverter 등)를 다시 거치지 않는다.
+ *  2. 전체 크기(response-cache.max-size)로 제한하고, response-cache.ttl 이 지나면 버린다.
+ *      ● 크기는 본문 바이트 + 키와 헤더 값의 대략적인 크기 (요청 파라미터가 긴 작은 응답도 제한에 걸리도록)
+ */
+@Component
+public class ResponseCache {
+
+    private final Cache<Object, Entry> cache;
+
+    public ResponseCache(@Value("${response-cache.max-size:8MB}") DataSize maxSize,
+                         @Value("${response-cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(ResponseCache::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static int weigh(Object key, Entry entry) {
+        long weight = entry.getBody().length
+                + 2L * key.toString().length()
+                + 2L * (entry.getContentType() != null ? entry.getContentType().length() : 0)
+                + 2L * entry.getEtag().length();
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    @Nullable
+    public Entry get(Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Object key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+
+        private final byte[] body;
+
+        @Nullable
+        private final String contentType;
+
+        private final String etag;
+    }
+}
@@ -0,0 +1,145 @@
+package com.jonghak.springbootweb.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * - @CacheableResponse 핸들러의 응답 저장 (캐시에 없어서 핸들러가 실행된 경우)
+ *  1. 선택된 변환기로 본문을 한 번 인코딩하면서 DigestOutputStream 으로 md5 를 같이 계산한다. (ETag)
+ *      ● ShallowEtagHeaderFilter 처럼 모든 응답을 버퍼에 모은 뒤 다시 해시하지 않는다. 캐시에 둘 바이트를 만드는 김에 계산한다.
+ *  2. 인코딩한 바이트를 캐시에 넣고 응답에도 그대로 쓴 뒤 null 을 돌려준다. (변환기가 다시 쓰지 않도록)
+ *      ● 캐시에서 응답할 때와 같이 Vary: Accept 를 붙인다.
+ *  3. 200 이 아니거나 변환기를 찾지 못하면 손대지 않는다.
+ */
+@ControllerAdvice
+public class ResponseCacheAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ResponseCache responseCache;
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    public ResponseCacheAdvice(ResponseCache responseCache, ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.responseCache = responseCache;
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(CacheableResponse.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        HttpServletResponse servletResponse = ((ServletServerHttpResponse) response).getServletResponse();
+        Object key = servletRequest.getAttribute(ResponseCacheInterceptor.KEY_ATTRIBUTE);
+        if (key == null || servletResponse.getStatus() != HttpStatus.OK.value()) {
+            return body;
+        }
+        HttpMessageConverter<Object> converter = findConverter(selectedConverterType, body.getClass(), selectedContentType);
+        if (converter == null) {
+            return body;
+        }
+        ResponseCache.Entry entry = encode(converter, body, selectedContentType);
+        responseCache.put(key, entry);
+
+        ResponseCacheInterceptor.varyByAccept(servletResponse);
+        if (new ServletWebRequest(servletRequest, servletResponse).checkNotModified(entry.getEtag())) {
+            return null;
+        }
+        if (entry.getContentType() != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_TYPE, entry.getContentType());
+        }
+        response.getHeaders().setContentLength(entry.getBody().length);
+        try {
+            response.getBody().write(entry.getBody());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> findConverter(Class<?> converterType, Class<?> bodyType, MediaType contentType) {
+        for (HttpMessageConverter<?> converter : handlerAdapter.getObject().getMessageConverters()) {
+            if (converterType.isInstance(converter) && converter.canWrite(bodyType, contentType)) {
+                return (HttpMessageConverter<Object>) converter;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseCache.Entry encode(HttpMessageConverter<Object> converter, Object body, MediaType contentType) {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(256);
+        DigestOutputStream digestStream = new DigestOutputStream(buffer, md5);
+        HttpHeaders headers = new HttpHeaders();
+        HttpOutputMessage message = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return digestStream;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        try {
+            if (converter instanceof GenericHttpMessageConverter) {
+                ((GenericHttpMessageConverter<Object>) converter).write(body, body.getClass(), contentType, message);
+            } else {
+                converter.write(body, contentType, message);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        MediaType writtenType = headers.getContentType();
+        return new ResponseCache.Entry(buffer.toByteArrayUnsafe(),
+                writtenType != null ? writtenType.toString() : null,
+                "\"" + toHex(md5.digest()) + "\"");
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
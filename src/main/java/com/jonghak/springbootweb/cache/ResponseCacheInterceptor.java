@@ -0,0 +1,86 @@
+package com.jonghak.springbootweb.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * - @CacheableResponse 핸들러의 캐시 조회 (핸들러 실행 전)
+ *  1. 키 : 핸들러 메소드 + 경로 변수 + 요청 파라미터 + Accept
+ *      ● 인자로 변환되기 전의 값이다. (Formatter 등으로 인자를 만드는 것 자체를 건너뛰기 위해)
+ *      ● 요청 파라미터는 이름순으로 정렬해서 넣는다. (?a=1&b=2 와 ?b=2&a=1 이 같은 키)
+ *  2. 캐시에 있으면 If-None-Match 를 확인해서 304, 아니면 저장된 바이트를 그대로 쓰고 핸들러를 실행하지 않는다.
+ *      ● 키에 Accept 가 들어가므로 응답(304 포함)에 Vary: Accept 를 붙인다. (앞단 공유 캐시가 다른 표현을 내주지 않도록)
+ *  3. 없으면 키를 request attribute 로 남기고, ResponseCacheAdvice 가 응답을 쓸 때 저장한다.
+ */
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    static final String KEY_ATTRIBUTE = ResponseCacheInterceptor.class.getName() + ".key";
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheInterceptor(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || !"GET".equals(request.getMethod())
+                || !(handler instanceof HandlerMethod)
+                || !((HandlerMethod) handler).hasMethodAnnotation(CacheableResponse.class)) {
+            return true;
+        }
+        Object key = keyOf(request, (HandlerMethod) handler);
+        ResponseCache.Entry entry = responseCache.get(key);
+        if (entry == null) {
+            request.setAttribute(KEY_ATTRIBUTE, key);
+            return true;
+        }
+        varyByAccept(response);
+        if (new ServletWebRequest(request, response).checkNotModified(entry.getEtag())) {
+            return false;
+        }
+        if (entry.getContentType() != null) {
+            response.setContentType(entry.getContentType());
+        }
+        response.setContentLength(entry.getBody().length);
+        response.getOutputStream().write(entry.getBody());
+        return false;
+    }
+
+    /**
+     * Vary 에 Accept 를 더한다. (이미 있으면 그대로)
+     */
+    static void varyByAccept(HttpServletResponse response) {
+        for (String vary : response.getHeaders(HttpHeaders.VARY)) {
+            for (String value : vary.split(",")) {
+                if (value.trim().equals("*") || value.trim().equalsIgnoreCase(HttpHeaders.ACCEPT)) {
+                    return;
+                }
+            }
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private static Object keyOf(HttpServletRequest request, HandlerMethod handler) {
+        Object uriVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Map<String, List<String>> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.asList(values)));
+        return Arrays.asList(handler.getMethod(),
+                uriVariables != null ? uriVariables : Collections.emptyMap(),
+                parameters,
+                request.getHeader(HttpHeaders.ACCEPT));
+    }
+}
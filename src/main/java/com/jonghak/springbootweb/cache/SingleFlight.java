@@ -0,0 +1,76 @@
+package com.jonghak.springbootweb.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * - Single-flight 요청 병합
+ *  1. 같은 key 로 동시에 들어온 요청은 하나의 로드만 실행하고 나머지는 그 결과를 함께 받는다.
+ *  2. 처음 도착한 요청(leader)이 자기 스레드에서 loader 를 실행한다. 별도 스레드를 쓰지 않음.
+ *  3. 나머지 요청(follower)은 timeout 만큼만 기다리고 TimeoutException 을 던진다.
+ *      ● follower 가 포기해도 진행중인 로드는 취소되지 않고 다른 follower 들은 계속 결과를 받는다.
+ *  4. 로드가 실패하면 기다리던 모든 요청이 같은 예외를 받고, 다음 요청은 새로 로드한다. (실패는 캐시하지 않음)
+ *
+ * - 진행중인 로드는 ConcurrentHashMap 에 보관
+ *  ● 조회는 lock 없이, 등록/삭제는 해당 bin 에만 lock 을 걸기 때문에 코어가 많아도 경합이 적다.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V load(K key, Function<? super K, ? extends V> loader, Duration timeout) throws TimeoutException {
+        CompletableFuture<V> call = inFlight.get(key);
+        if (call == null) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            call = inFlight.putIfAbsent(key, created);
+            if (call == null) {
+                return lead(key, created, loader);
+            }
+        }
+        return await(call, timeout);
+    }
+
+    /**
+     * 현재 진행중인 로드 수
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<V> call, Function<? super K, ? extends V> loader) {
+        try {
+            V value = loader.apply(key);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call, Duration timeout) throws TimeoutException {
+        try {
+            return call.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.jonghak.springbootweb.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * - 캐시 추상화 활성화
+ *  1. @EnableCaching 이 있어야 @Cacheable, @CacheEvict 가 동작한다.
+ *  2. 스프링 부트는 classpath 에 Caffeine 이 있으면 CaffeineCacheManager 를 자동 설정한다.
+ *      ● spring.cache.cache-names      : 미리 만들어 둘 캐시 이름
+ *      ● spring.cache.caffeine.spec    : 최대 크기, 만료 시간, 통계(recordStats) 설정
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,55 @@
+package com.jonghak.springbootweb.config;
+
+import com.jonghak.springbootweb.jfr.JfrMessageConversionProcessor;
+import com.jonghak.springbootweb.jfr.RepositoryCallInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * - JFR 커스텀 이벤트 (com.jonghak.springbootweb.jfr)
+ *  1. InterceptorPhaseEvent   : WebConfig.addInterceptors 에서 인터셉터마다 JfrHandlerInterceptor 로 감싼다.
+ *  2. ArgumentConversionEvent : PersonFormatter, PersonEntityFormatter 의 parse
+ *  3. MessageConversionEvent  : RequestMappingHandlerAdapter 의 @RequestBody/@ResponseBody 처리기를 감싼다.
+ *  4. RepositoryCallEvent     : 스프링 데이터 리포지토리 프록시에 RepositoryCallInterceptor 를 넣는다.
+ *
+ * - 기록 중이 아니면 이벤트는 꺼져 있고, 꺼진 이벤트의 begin/end/commit 은 JIT 에서 사라진다. (감싼 호출 한 단계만 남는다)
+ * - 기록 시작/종료는 jcmd JFR.start 또는 /jfr/start, /jfr/stop (JfrRecordingController)
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public static BeanPostProcessor messageConversionEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter) {
+                    RequestMappingHandlerAdapter adapter = (RequestMappingHandlerAdapter) bean;
+                    adapter.setArgumentResolvers(JfrMessageConversionProcessor.wrapArgumentResolvers(adapter.getArgumentResolvers()));
+                    adapter.setReturnValueHandlers(JfrMessageConversionProcessor.wrapReturnValueHandlers(adapter.getReturnValueHandlers()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 리포지토리 팩토리 빈이 리포지토리를 만들기 전(afterPropertiesSet 전)에 RepositoryProxyPostProcessor 를 추가한다.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryCallEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            factory -> factory.addRepositoryProxyPostProcessor(RepositoryCallInterceptor.postProcessor()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,17 +1,43 @@
 package com.jonghak.springbootweb.config;
 
+import com.jonghak.springbootweb.cache.ResponseCache;
+import com.jonghak.springbootweb.cache.ResponseCacheInterceptor;
+import com.jonghak.springbootweb.converter.PersonBinaryHttpMessageConverter;
+import com.jonghak.springbootweb.converter.PersonXmlHttpMessageConverter;
+import com.jonghak.springbootweb.interceptor.AdmissionControl;
+import com.jonghak.springbootweb.interceptor.AdmissionControlInterceptor;
 import com.jonghak.springbootweb.interceptor.AnotherInterceptor;
+import com.jonghak.springbootweb.interceptor.CachingRequestMappingHandlerMapping;
 import com.jonghak.springbootweb.interceptor.GreetingInterceptor;
+import com.jonghak.springbootweb.jfr.JfrHandlerInterceptor;
+import com.jonghak.springbootweb.metrics.HandlerMetrics;
+import com.jonghak.springbootweb.resource.CachedResourceHttpMessageConverter;
+import com.jonghak.springbootweb.resource.ImmutableResourceResolver;
+import com.jonghak.springbootweb.resource.InMemoryResourceResolver;
+import com.jonghak.springbootweb.resource.ManifestVersionStrategy;
+import com.jonghak.springbootweb.resource.StaticResourceCache;
 import com.jonghak.springbootweb.sample.Person;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.CacheControl;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
 import org.springframework.oxm.jaxb.Jaxb2Marshaller;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +61,29 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final HandlerMetrics handlerMetrics;
+
+    private final StaticResourceCache staticResourceCache;
+
+    private final AdmissionControl admissionControl;
+
+    private final ResponseCache responseCache;
+
+    private final WebProperties webProperties;
+
+    private final Jaxb2Marshaller jaxb2Marshaller;
+
+    public WebConfig(HandlerMetrics handlerMetrics, StaticResourceCache staticResourceCache,
+                     AdmissionControl admissionControl, ResponseCache responseCache, WebProperties webProperties,
+                     Jaxb2Marshaller jaxb2Marshaller) {
+        this.handlerMetrics = handlerMetrics;
+        this.staticResourceCache = staticResourceCache;
+        this.admissionControl = admissionControl;
+        this.responseCache = responseCache;
+        this.webProperties = webProperties;
+        this.jaxb2Marshaller = jaxb2Marshaller;
+    }
+
     /**
      * Spring Boot의 경우 Formatter가 @Component로 등록되어 있으면 addFormatters가 필요 없음!! 
      * Spring Boot에서 Bean으로 등록된 Formatter를 알아서 적용해줌
@@ -47,14 +96,40 @@ public class WebConfig implements WebMvcConfigurer {
 
     /**
      * Handler Interceptors 추가!!
+     *  ● AdmissionControlInterceptor 는 가장 먼저 실행되도록 (거절된 요청은 뒤 인터셉터의 측정에 들어가지 않음)
+     *    admission.rules 의 path-patterns 로 범위를 정한다.
+     *  ● ResponseCacheInterceptor 는 가장 나중에 실행되도록 (캐시에서 응답하면 핸들러만 건너뛴다)
+     *  ● 모두 JfrHandlerInterceptor 로 감싸서 단계별 JFR 이벤트(InterceptorPhaseEvent)를 남긴다.
      * @param registry
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new GreetingInterceptor()).order(1);
-        registry.addInterceptor(new AnotherInterceptor())
+        for (AdmissionControlInterceptor interceptor : admissionControl.getInterceptors()) {
+            registry.addInterceptor(new JfrHandlerInterceptor(interceptor))
+                    .addPathPatterns(interceptor.getPathPatterns())
+                    .order(-1);
+        }
+        registry.addInterceptor(new JfrHandlerInterceptor(new GreetingInterceptor(handlerMetrics))).order(1);
+        registry.addInterceptor(new JfrHandlerInterceptor(new AnotherInterceptor(handlerMetrics)))
                 .addPathPatterns("/hello*")
                 .order(0);
+        registry.addInterceptor(new JfrHandlerInterceptor(new ResponseCacheInterceptor(responseCache))).order(2);
+    }
+
+    /**
+     * @RequestMapping 핸들러 매핑을 CachingRequestMappingHandlerMapping 으로 바꾼다. (web.interceptor-chain-cache.enabled)
+     *  ● 위에서 addPathPatterns 로 등록한 인터셉터의 적용 여부를 요청마다가 아니라 핸들러 메소드, 매핑 패턴마다 한 번 정한다.
+     *  ● 스프링 부트는 WebMvcRegistrations 빈이 있으면 그 핸들러 매핑을 만들어서 나머지 설정(인터셉터, 경로 매칭 등)을 똑같이 적용한다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "web.interceptor-chain-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public WebMvcRegistrations interceptorChainCacheRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new CachingRequestMappingHandlerMapping();
+            }
+        };
     }
 
     /**
@@ -83,17 +158,66 @@ public class WebConfig implements WebMvcConfigurer {
      *     ● 캐싱, CSS 링크, HTML5 AppCache, ...
      *
      * ps. 4, 5번 참고 : https://www.slideshare.net/rstoya05/resource-handling-spring-framework-41
+     *
+     * - 미리 압축한 리소스 + 내용 해시 버전 (/mobile/**, /**)
+     *  1. 빌드 시 StaticResourcePrecompressor 가 .gz/.br 와 해시 매니페스트를 만든다. (pom.xml 의 precompress-static-resources)
+     *  2. EncodedResourceResolver : Accept-Encoding 에 맞는 .br/.gz 를 그대로 내려준다. (요청마다 압축하지 않음)
+     *  3. VersionResourceResolver + ManifestVersionStrategy : index-{hash}.html 요청을 index.html 로 찾는다.
+     *  4. ImmutableResourceResolver : 버전 경로로 찾은 경우 1년 immutable 캐시 + strong ETag
+     *  5. 스프링 부트 기본 정적 리소스 핸들러(/**)도 같은 체인으로 다시 등록한다.
+     *      ● /** 는 핸들러가 하나만 남는다. (부트는 이미 등록된 패턴이면 건너뛰고, 같은 패턴을 두 번 등록하면 한쪽을 덮어쓴다)
+     *      ● 그래서 위치도 부트 기본값(spring.web.resources.static-locations : META-INF/resources, resources, static, public)을 그대로 쓴다.
+     *      ● /hi 뷰 컨트롤러의 hi.html 도 포워드되어 이 핸들러로 온다.
+     *  6. InMemoryResourceResolver : 최종 리소스 본문을 StaticResourceCache(힙 밖, 전체 크기 제한)에서 내려준다.
+     *      ● 쓰기는 resourceConverterPostProcessor 가 바꿔 끼운 CachedResourceHttpMessageConverter 가 맡는다.
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/mobile/**")   // url이 /mobile/** 되어 있는 모든 요청
+        ManifestVersionStrategy versionStrategy = new ManifestVersionStrategy();
+
+        ResourceHandlerRegistration mobile = registry.addResourceHandler("/mobile/**")   // url이 /mobile/** 되어 있는 모든 요청
                 .addResourceLocations("classpath:/mobile/")     // resources/mobile/ 디렉토리 안에 있는 페이지
                                                                 // classpath: : resource 가 root
                                                                 // file: /Users/jonghak/files/ 처럼 특정 파일 경로
                                                                 // 아무것도 붙이지 않는다면 src/main/webapp/
-                .setCacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES)) // 10분동안 캐싱된 페이지로 노출, 만약 10분에 리소스가 변경되면 변경된 리소소로 노출됨
-                .resourceChain(true) // 캐시 사용여부(true:사용-운영, false:미사용-개발)
-        ;
+                .setCacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES)); // 10분동안 캐싱된 페이지로 노출, 만약 10분에 리소스가 변경되면 변경된 리소소로 노출됨
+        precompressedChain(mobile, versionStrategy);
+
+        ResourceHandlerRegistration statics = registry.addResourceHandler("/**")
+                .addResourceLocations(webProperties.getResources().getStaticLocations())
+                .setCacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES));
+        precompressedChain(statics, versionStrategy);
+    }
+
+    private void precompressedChain(ResourceHandlerRegistration registration, ManifestVersionStrategy versionStrategy) {
+        registration.resourceChain(true) // 캐시 사용여부(true:사용-운영, false:미사용-개발)
+                .addResolver(new InMemoryResourceResolver(staticResourceCache))
+                .addResolver(new ImmutableResourceResolver())
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addVersionStrategy(versionStrategy, "/**"));
+    }
+
+    /**
+     * 리소스 핸들러(ResourceHttpRequestHandler)는 빈이 아니라 registry 가 직접 만들기 때문에
+     * resourceHandlerMapping 빈이 만들어진 뒤 응답 컨버터를 CachedResourceHttpMessageConverter 로 바꿔 끼운다.
+     */
+    @Bean
+    public static BeanPostProcessor resourceConverterPostProcessor(ObjectProvider<StaticResourceCache> staticResourceCache) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SimpleUrlHandlerMapping && "resourceHandlerMapping".equals(beanName)) {
+                    long sendfileThreshold = staticResourceCache.getObject().getSendfileThreshold();
+                    for (Object handler : ((SimpleUrlHandlerMapping) bean).getHandlerMap().values()) {
+                        if (handler instanceof ResourceHttpRequestHandler) {
+                            ((ResourceHttpRequestHandler) handler).setResourceHttpMessageConverter(
+                                    new CachedResourceHttpMessageConverter(sendfileThreshold));
+                        }
+                    }
+                }
+                return bean;
+            }
+        };
     }
 
     /**
@@ -129,10 +253,25 @@ public class WebConfig implements WebMvcConfigurer {
      *  4. Spring Boot를 사용하는 경우
      *      ● 기본적으로 JacksonJSON 2가 의존성에 들어있다.
      *      ● 즉, JSON용 HTTP 메시지 컨버터가 기본으로 등록되어 있다.
+     *
+     * - Person XML 컨버터 추가
+     *  1. Person, List<Person> 은 PersonXmlHttpMessageConverter 가 처리 (스레드별 Marshaller 재사용, List 는 StAX 스트리밍)
+     *  2. 기존 JAXB2 컨버터 바로 앞에 넣는다.
+     *      ● 스프링 부트는 XML 컨버터를 JSON 컨버터 뒤로 보내기 때문에 맨 앞에 넣으면 Accept 가 없는 요청의 기본 응답이 XML 로 바뀐다.
+     *
+     * - Person 바이너리 컨버터 추가 (application/x-person)
+     *  1. 서비스 간 통신용으로 JSON/XML 보다 작고 싸게 읽고 쓴다. (PersonBinaryHttpMessageConverter)
+     *  2. XML 컨버터 바로 뒤에 넣는다. Accept / Content-Type 으로 골라야만 쓰인다.
      */
     @Override
     public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
-        WebMvcConfigurer.super.extendMessageConverters(converters);
+        PersonXmlHttpMessageConverter personXmlConverter = new PersonXmlHttpMessageConverter(jaxb2Marshaller.getJaxbContext());
+        int index = 0;
+        while (index < converters.size() && !(converters.get(index) instanceof Jaxb2RootElementHttpMessageConverter)) {
+            index++;
+        }
+        converters.add(index, personXmlConverter);
+        converters.add(index + 1, new PersonBinaryHttpMessageConverter());
     }
 
     /**
@@ -144,11 +283,18 @@ public class WebConfig implements WebMvcConfigurer {
      *
      * - 스프링 부트를 사용하는 경우
      *  1. 기본으로 XML 의존성 추가해주지 않음.
+     *
+     * - 바인딩할 클래스를 직접 지정 (setClassesToBeBound)
+     *  1. setPackagesToScan 은 시작할 때 클래스패스에서 패키지 전체를 읽어 @XmlRootElement 를 찾는다. (시작 시간)
+     *  2. @XmlRootElement 는 Person 하나뿐이라 직접 지정해도 만들어지는 JAXBContext 는 같다.
+     *      ● XML 로 주고받을 루트 클래스가 늘어나면 여기에 추가한다.
+     *
+     * - static 이라 WebConfig 없이도 만들 수 있다. (벤치마크 등) WebConfig 는 생성자로 이 빈을 받는다.
      */
     @Bean
-    public Jaxb2Marshaller jaxb2Marshaller() {
+    public static Jaxb2Marshaller jaxb2Marshaller() {
         Jaxb2Marshaller jaxb2Marshaller = new Jaxb2Marshaller();
-        jaxb2Marshaller.setPackagesToScan(Person.class.getPackageName()); // Jaxb2에서 @XmlRootElement 어노테이션을 스캔하는 설정 필요
+        jaxb2Marshaller.setClassesToBeBound(Person.class);
         return jaxb2Marshaller;
     }
 
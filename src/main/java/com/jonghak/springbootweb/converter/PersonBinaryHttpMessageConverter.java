@@ -0,0 +1,286 @@
+package com.jonghak.springbootweb.converter;
+
+import com.jonghak.springbootweb.sample.Person;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * - Person / List<Person> 용 바이너리 메세지 컨버터 (application/x-person)
+ *  1. 서비스 간 통신용. Accept / Content-Type 이 application/x-person 일 때만 쓰인다.
+ *  2. 형식 (varint 는 7비트씩, 하위 비트부터)
+ *      ● Person      : flags(1byte, 1=id 있음, 2=name 있음) [id : zigzag varint] [name : varint 길이 + UTF-8]
+ *      ● List<Person> : varint 개수 + Person 반복
+ *  3. 스레드별 byte[] 버퍼 하나를 읽기/쓰기에 재사용한다. (요청마다 버퍼나 스트림 래퍼를 만들지 않음)
+ *      ● ASCII 이름은 String.getBytes 없이 버퍼에 바로 쓴다.
+ *  4. name 길이는 MAX_NAME_LENGTH 까지, 목록 개수만큼 미리 할당하지 않는다. (잘못된 입력으로 메모리를 잡지 않도록)
+ */
+public class PersonBinaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String PERSON_BINARY_VALUE = "application/x-person";
+
+    public static final MediaType PERSON_BINARY = MediaType.parseMediaType(PERSON_BINARY_VALUE);
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    static final int MAX_NAME_LENGTH = 64 * 1024;
+
+    private static final int FLAG_ID = 1;
+
+    private static final int FLAG_NAME = 2;
+
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    public PersonBinaryHttpMessageConverter() {
+        super(PERSON_BINARY);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Person.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return (PersonTypes.isPerson(type) || PersonTypes.isPersonList(type, true)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        boolean supported = type != null ? (PersonTypes.isPerson(type) || PersonTypes.isPersonList(type, false)) : supports(clazz);
+        return supported && canWrite(mediaType);
+    }
+
+    /**
+     * PersonXmlHttpMessageConverter 와 같이, 값의 클래스(ArrayList 등)로 물을 때도 Collection 을 허용
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        Input input = new Input(inputMessage.getBody(), buffers.get());
+        try {
+            if (PersonTypes.isPersonList(type, true)) {
+                long count = input.readVarLong();
+                if (count < 0 || count > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid list size: " + count);
+                }
+                List<Person> people = new ArrayList<>((int) Math.min(count, 1024));
+                for (long i = 0; i < count; i++) {
+                    people.add(input.readPerson());
+                }
+                return people;
+            }
+            return input.readPerson();
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Could not read Person binary: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Output output = new Output(outputMessage.getBody(), buffers.get());
+        if (object instanceof Collection) {
+            Collection<?> people = (Collection<?>) object;
+            output.writeVarLong(people.size());
+            for (Object person : people) {
+                output.writePerson((Person) person);
+            }
+        } else {
+            output.writePerson((Person) object);
+        }
+        output.flush();
+    }
+
+    private static final class Input {
+
+        private final InputStream in;
+
+        private final byte[] buffer;
+
+        private int position;
+
+        private int limit;
+
+        Input(InputStream in, byte[] buffer) {
+            this.in = in;
+            this.buffer = buffer;
+        }
+
+        Person readPerson() throws IOException {
+            int flags = readByte();
+            if ((flags & ~(FLAG_ID | FLAG_NAME)) != 0) {
+                throw new IOException("Invalid flags: " + flags);
+            }
+            Person person = new Person();
+            if ((flags & FLAG_ID) != 0) {
+                long zigzag = readVarLong();
+                person.setId((zigzag >>> 1) ^ -(zigzag & 1));
+            }
+            if ((flags & FLAG_NAME) != 0) {
+                long length = readVarLong();
+                if (length < 0 || length > MAX_NAME_LENGTH) {
+                    throw new IOException("Invalid name length: " + length);
+                }
+                person.setName(readString((int) length));
+            }
+            return person;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        private int readByte() throws IOException {
+            if (position == limit && fill(1) < 1) {
+                throw new EOFException("Unexpected end of Person binary");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private String readString(int length) throws IOException {
+            if (length > buffer.length) {
+                byte[] bytes = new byte[length];
+                int buffered = limit - position;
+                System.arraycopy(buffer, position, bytes, 0, buffered);
+                position = limit;
+                if (in.readNBytes(bytes, buffered, length - buffered) != length - buffered) {
+                    throw new EOFException("Unexpected end of Person binary");
+                }
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (limit - position < length && fill(length) < length) {
+                throw new EOFException("Unexpected end of Person binary");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * 남은 바이트를 버퍼 앞으로 옮기고 최소 required 바이트가 될 때까지 읽는다.
+         */
+        private int fill(int required) throws IOException {
+            int remaining = limit - position;
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+            position = 0;
+            limit = remaining;
+            while (limit < required) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    break;
+                }
+                limit += read;
+            }
+            return limit;
+        }
+    }
+
+    private static final class Output {
+
+        private final OutputStream out;
+
+        private final byte[] buffer;
+
+        private int position;
+
+        Output(OutputStream out, byte[] buffer) {
+            this.out = out;
+            this.buffer = buffer;
+        }
+
+        void writePerson(Person person) throws IOException {
+            Long id = person.getId();
+            String name = person.getName();
+            ensure(1 + 10);
+            buffer[position++] = (byte) ((id != null ? FLAG_ID : 0) | (name != null ? FLAG_NAME : 0));
+            if (id != null) {
+                writeVarLong((id << 1) ^ (id >> 63));
+            }
+            if (name != null) {
+                writeString(name);
+            }
+        }
+
+        void writeVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeString(String value) throws IOException {
+            int length = value.length();
+            if (length + 10 <= buffer.length && isAscii(value)) {
+                writeVarLong(length);
+                ensure(length);
+                for (int i = 0; i < length; i++) {
+                    buffer[position++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            if (bytes.length > buffer.length - position) {
+                flush();
+                out.write(bytes);
+            } else {
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+            }
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.length - position < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (position > 0) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.jonghak.springbootweb.converter;
+
+import com.jonghak.springbootweb.sample.Person;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Person 전용 컨버터(XML, 바이너리)가 같이 쓰는 타입 확인
+ */
+final class PersonTypes {
+
+    private PersonTypes() {
+    }
+
+    static boolean isPerson(Type type) {
+        return type == Person.class;
+    }
+
+    /**
+     * 읽을 때는 ArrayList 로 돌려줄 수 있는 타입(List, Collection)만, 쓸 때는 모든 Collection<Person>
+     */
+    static boolean isPersonList(Type type, boolean forRead) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        Class<?> rawClass = resolvableType.getRawClass();
+        return rawClass != null
+                && Collection.class.isAssignableFrom(rawClass)
+                && (!forRead || rawClass.isAssignableFrom(ArrayList.class))
+                && resolvableType.getGeneric(0).resolve() == Person.class;
+    }
+}
@@ -0,0 +1,225 @@
+package com.jonghak.springbootweb.converter;
+
+import com.jonghak.springbootweb.sample.Person;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * - Person / List<Person> 용 XML 메세지 컨버터
+ *  1. JAXBContext 는 WebConfig.jaxb2Marshaller() 빈의 것을 그대로 쓴다.
+ *  2. Marshaller/Unmarshaller 는 thread-safe 하지 않기 때문에 요청마다 만들지 않고 스레드별로 하나씩 만들어 재사용한다.
+ *  3. List<Person> 은 StAX 로 <people> 아래 <person> 을 하나씩 읽고/쓴다.
+ *      ● 쓰기 : 문서 전체를 메모리에 만들지 않고 person 마다 바로 출력 스트림으로 내보낸다.
+ *      ● 읽기 : DOM 을 만들지 않고 person 단위로 unmarshal 한다. 다만 스트리밍은 아니다.
+ *        핸들러 인자가 List<Person> 이라 모든 Person 을 읽어 리스트에 담은 뒤 돌려준다. (요청 크기만큼 Person 객체가 메모리에 남음)
+ *  4. DTD, 외부 엔티티는 읽지 않는다. (XXE 방지)
+ *  5. unmarshal(reader, Person.class) 는 요소 이름을 보지 않으므로 루트는 <person> / <people>, 목록 항목은 <person> 인지 직접 확인한다.
+ *      ● 다른 이름이면 HttpMessageNotReadableException (400)
+ *
+ * - 그 외 @XmlRootElement 타입은 기존 Jaxb2RootElementHttpMessageConverter 가 계속 처리한다.
+ */
+public class PersonXmlHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String LIST_ELEMENT = "people";
+
+    public static final String PERSON_ELEMENT = "person";
+
+    private static final int FLUSH_EVERY = 256;
+
+    private final ThreadLocal<Marshaller> documentMarshaller;
+
+    private final ThreadLocal<Marshaller> fragmentMarshaller;
+
+    private final ThreadLocal<Unmarshaller> unmarshaller;
+
+    private final ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(PersonXmlHttpMessageConverter::createInputFactory);
+
+    private final ThreadLocal<XMLOutputFactory> outputFactory = ThreadLocal.withInitial(XMLOutputFactory::newFactory);
+
+    public PersonXmlHttpMessageConverter(JAXBContext jaxbContext) {
+        super(MediaType.APPLICATION_XML, MediaType.TEXT_XML, new MediaType("application", "*+xml"));
+        setDefaultCharset(StandardCharsets.UTF_8);
+        this.documentMarshaller = ThreadLocal.withInitial(() -> createMarshaller(jaxbContext, false));
+        this.fragmentMarshaller = ThreadLocal.withInitial(() -> createMarshaller(jaxbContext, true));
+        this.unmarshaller = ThreadLocal.withInitial(() -> createUnmarshaller(jaxbContext));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Person.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return (PersonTypes.isPerson(type) || PersonTypes.isPersonList(type, true)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        boolean supported = type != null ? (PersonTypes.isPerson(type) || PersonTypes.isPersonList(type, false)) : supports(clazz);
+        return supported && canWrite(mediaType);
+    }
+
+    /**
+     * 응답 가능한 미디어 타입을 고를 때는 제네릭 정보 없이 값의 클래스(ArrayList 등)로 묻기 때문에 Collection 도 허용
+     *  ● 실제 List<Person> 여부는 canWrite(Type, ...) 에서 이미 확인한다.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.get().createXMLStreamReader(inputMessage.getBody(), charset(inputMessage.getHeaders().getContentType()).name());
+            if (PersonTypes.isPersonList(type, true)) {
+                return readList(reader);
+            }
+            reader.nextTag();
+            expectElement(reader, PERSON_ELEMENT);
+            return unmarshaller.get().unmarshal(reader, Person.class).getValue();
+        } catch (XMLStreamException | JAXBException e) {
+            throw new HttpMessageNotReadableException("Could not read Person XML: " + e.getMessage(), e, inputMessage);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * 요청 본문은 read() 가 끝나면 닫히므로 리스트를 지연해서 읽을 수 없다. 모두 읽어서 돌려준다.
+     */
+    private List<Person> readList(XMLStreamReader reader) throws XMLStreamException, JAXBException {
+        Unmarshaller unmarshaller = this.unmarshaller.get();
+        List<Person> people = new ArrayList<>();
+        reader.nextTag();
+        expectElement(reader, LIST_ELEMENT);
+        int event = reader.nextTag();
+        while (event == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, PERSON_ELEMENT);
+            people.add(unmarshaller.unmarshal(reader, Person.class).getValue());
+            // unmarshal 이 끝나면 </person> 다음 이벤트에 멈춰 있으므로 공백만 건너뛴다.
+            event = reader.getEventType();
+            if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                event = reader.nextTag();
+            }
+        }
+        return people;
+    }
+
+    private static void expectElement(XMLStreamReader reader, String name) throws XMLStreamException {
+        if (!name.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Unexpected element <" + reader.getLocalName() + ">, expected <" + name + ">",
+                    reader.getLocation());
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Charset charset = charset(outputMessage.getHeaders().getContentType());
+        OutputStream body = outputMessage.getBody();
+        try {
+            if (object instanceof Collection) {
+                writeList((Collection<?>) object, body, charset);
+            } else {
+                Marshaller marshaller = documentMarshaller.get();
+                marshaller.setProperty(Marshaller.JAXB_ENCODING, charset.name());
+                marshaller.marshal(object, body);
+            }
+        } catch (XMLStreamException | JAXBException e) {
+            throw new HttpMessageNotWritableException("Could not write Person XML: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeList(Collection<?> people, OutputStream body, Charset charset) throws XMLStreamException, JAXBException {
+        Marshaller marshaller = fragmentMarshaller.get();
+        XMLStreamWriter writer = outputFactory.get().createXMLStreamWriter(body, charset.name());
+        try {
+            writer.writeStartDocument(charset.name(), "1.0");
+            writer.writeStartElement(LIST_ELEMENT);
+            int count = 0;
+            for (Object person : people) {
+                marshaller.marshal(person, writer);
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            writer.close(); // 하위 출력 스트림은 닫지 않는다.
+        }
+    }
+
+    private Charset charset(@Nullable MediaType contentType) {
+        if (contentType != null && contentType.getCharset() != null) {
+            return contentType.getCharset();
+        }
+        return getDefaultCharset();
+    }
+
+    private static Marshaller createMarshaller(JAXBContext jaxbContext, boolean fragment) {
+        try {
+            Marshaller marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+            return marshaller;
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not create JAXB Marshaller", e);
+        }
+    }
+
+    private static Unmarshaller createUnmarshaller(JAXBContext jaxbContext) {
+        try {
+            return jaxbContext.createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Could not create JAXB Unmarshaller", e);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static void close(@Nullable XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+            }
+        }
+    }
+}
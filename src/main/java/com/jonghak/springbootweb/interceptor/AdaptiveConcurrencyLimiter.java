@@ -0,0 +1,85 @@
+package com.jonghak.springbootweb.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * - 지연시간으로 조절되는 동시 처리 한도 (AIMD)
+ *  1. 처리중(inFlight)인 요청이 limit 이상이면 더 받지 않는다.
+ *  2. 끝난 요청의 지연시간이 지금까지 본 최소 지연시간(minRtt) * tolerance 보다 길면 큐가 쌓이는 중으로 보고 limit 을 줄인다. (x backoffRatio)
+ *     아니고 limit 의 절반 이상을 쓰고 있으면 조금씩 늘린다. (+1/limit, 즉 limit 개가 끝날 때마다 1)
+ *  3. minRtt 는 probeInterval 개마다 새로 잰다. (부하 특성이 바뀌어도 옛날 최소값에 묶이지 않도록)
+ *  4. inFlight 와 limit 모두 CAS 로만 바꾼다.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final int probeInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong limitBits;
+
+    private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong samples = new AtomicLong();
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, int probeInterval) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.probeInterval = probeInterval;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (samples.incrementAndGet() % probeInterval == 0) {
+            minRttNanos.set(rttNanos);
+        }
+        long minRtt = minRttNanos.accumulateAndGet(rttNanos, Math::min);
+        boolean congested = rttNanos > minRtt * tolerance;
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next;
+            if (congested) {
+                next = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (current * 2 >= limit) {
+                next = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                return;
+            }
+            if (next == limit || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
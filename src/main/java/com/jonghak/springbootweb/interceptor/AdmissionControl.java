@@ -0,0 +1,30 @@
+package com.jonghak.springbootweb.interceptor;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * admission.rules 마다 AdmissionControlInterceptor 를 하나씩 만들어 둔다.
+ *  ● WebConfig 가 규칙의 path-patterns 로 등록하고, MetricsController 가 상태를 보여준다.
+ *  ● admission.enabled=false 면 비어 있다.
+ */
+@Component
+public class AdmissionControl {
+
+    private final List<AdmissionControlInterceptor> interceptors;
+
+    public AdmissionControl(AdmissionControlProperties properties) {
+        this.interceptors = properties.isEnabled()
+                ? properties.getRules().stream()
+                        .map(rule -> new AdmissionControlInterceptor(rule, properties))
+                        .collect(Collectors.toList())
+                : Collections.emptyList();
+    }
+
+    public List<AdmissionControlInterceptor> getInterceptors() {
+        return interceptors;
+    }
+}
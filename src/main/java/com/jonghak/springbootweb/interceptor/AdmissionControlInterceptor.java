@@ -0,0 +1,161 @@
+package com.jonghak.springbootweb.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * - 요청 수락 제어 / 부하 차단 (규칙 하나당 인터셉터 하나, addPathPatterns 로 범위 지정)
+ *  1. 클라이언트별 토큰 버킷 -> 경로 전체 토큰 버킷 -> 동시 처리 한도 순서로 확인한다.
+ *      ● 버킷이 비면 429, 동시 처리 한도를 넘으면 503. 둘 다 Retry-After 를 붙인다.
+ *      ● sendError 대신 상태만 쓰고 false 를 돌려준다. (거절 응답이 /error 디스패치를 타지 않도록)
+ *      ● 뒤 단계에서 거절되면 앞 단계에서 받은 토큰은 돌려준다. (거절된 요청이 클라이언트/경로 한도를 깎지 않도록)
+ *  2. 클라이언트별 버킷은 Caffeine 캐시에 둔다. (해시 테이블이 잘게 나뉘어 있어 클라이언트끼리 경합하지 않고, 크기/유휴시간 제한)
+ *  3. 동시 처리 한도는 afterCompletion 에서 지연시간과 함께 반납한다.
+ *      ● 비동기 요청은 ASYNC 디스패치의 afterCompletion 에서 반납하므로 executor 에서 실행된 시간까지 포함된다.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private final String name;
+
+    private final String admittedAttribute;
+
+    private final String clientHeader;
+
+    private final TokenBucket routeBucket;
+
+    private final Cache<String, TokenBucket> clientBuckets;
+
+    private final AdmissionControlProperties.Rule rule;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rateLimited = new LongAdder();
+
+    private final LongAdder shed = new LongAdder();
+
+    public AdmissionControlInterceptor(AdmissionControlProperties.Rule rule, AdmissionControlProperties properties) {
+        this.name = String.join(",", rule.getPathPatterns());
+        this.admittedAttribute = AdmissionControlInterceptor.class.getName() + ".admitted." + name;
+        this.clientHeader = properties.getClientHeader();
+        this.rule = rule;
+        this.routeBucket = rule.getRouteRate() > 0 ? new TokenBucket(rule.getRouteRate(), rule.getRouteBurst()) : null;
+        this.clientBuckets = rule.getClientRate() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxClients())
+                        .expireAfterAccess(properties.getClientIdleTimeout())
+                        .build()
+                : null;
+        AdmissionControlProperties.Concurrency concurrency = properties.getConcurrency();
+        this.limiter = rule.isAdaptiveConcurrency()
+                ? new AdaptiveConcurrencyLimiter(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                        concurrency.getMaxLimit(), concurrency.getTolerance(), concurrency.getProbeInterval())
+                : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        long now = System.nanoTime();
+        TokenBucket clientBucket = null;
+        if (clientBuckets != null) {
+            clientBucket = clientBuckets.get(clientOf(request),
+                    key -> new TokenBucket(rule.getClientRate(), rule.getClientBurst()));
+            if (reject(clientBucket.tryAcquire(now), response)) {
+                return false;
+            }
+        }
+        if (routeBucket != null && reject(routeBucket.tryAcquire(now), response)) {
+            refund(clientBucket);
+            return false;
+        }
+        if (limiter != null) {
+            if (!limiter.tryAcquire()) {
+                refund(clientBucket);
+                refund(routeBucket);
+                shed.increment();
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                return false;
+            }
+            request.setAttribute(admittedAttribute, now);
+        }
+        admitted.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        Object start = request.getAttribute(admittedAttribute);
+        if (start != null) {
+            request.removeAttribute(admittedAttribute);
+            limiter.release(System.nanoTime() - (Long) start);
+        }
+    }
+
+    private boolean reject(long waitNanos, HttpServletResponse response) {
+        if (waitNanos == 0) {
+            return false;
+        }
+        rateLimited.increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        return true;
+    }
+
+    private static void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (StringUtils.hasText(clientHeader)) {
+            String value = request.getHeader(clientHeader);
+            if (StringUtils.hasText(value)) {
+                int comma = value.indexOf(',');
+                return (comma < 0 ? value : value.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getPathPatterns() {
+        return rule.getPathPatterns();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("admitted", admitted.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("shed", shed.sum());
+        if (clientBuckets != null) {
+            stats.put("clients", clientBuckets.estimatedSize());
+        }
+        if (limiter != null) {
+            stats.put("concurrencyLimit", limiter.getLimit());
+            stats.put("inFlight", limiter.getInFlight());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package com.jonghak.springbootweb.interceptor;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * - 요청 수락 제어 설정 (admission.*)
+ *  1. rules : 경로 패턴마다 토큰 버킷(경로 전체, 클라이언트별)과 동시 처리 한도 적용 여부
+ *      ● rate 가 0 이면 해당 버킷은 쓰지 않는다.
+ *  2. concurrency : AdaptiveConcurrencyLimiter 공통 설정 (규칙마다 따로 한도를 가진다)
+ *  3. client-header : 클라이언트를 구분할 헤더 (비어 있으면 remote address, X-Forwarded-For 는 첫 번째 값)
+ *      ● 프록시 뒤에 있을 때만 설정한다. 그렇지 않으면 클라이언트가 헤더를 바꿔가며 버킷을 피할 수 있다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled = false;
+
+    private String clientHeader = "";
+
+    /** 클라이언트별 버킷 최대 개수 (넘으면 오래 안 쓴 것부터 버린다) */
+    private long maxClients = 10_000;
+
+    /** 이 시간 동안 요청이 없으면 클라이언트 버킷을 버린다 */
+    private Duration clientIdleTimeout = Duration.ofMinutes(5);
+
+    private Concurrency concurrency = new Concurrency();
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+
+        private List<String> pathPatterns = new ArrayList<>();
+
+        /** 경로 패턴 전체 초당 요청 수 */
+        private double routeRate;
+
+        private int routeBurst = 1;
+
+        /** 클라이언트 하나의 초당 요청 수 */
+        private double clientRate;
+
+        private int clientBurst = 1;
+
+        private boolean adaptiveConcurrency;
+    }
+
+    @Getter
+    @Setter
+    public static class Concurrency {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /** 최소 지연시간의 몇 배를 넘으면 한도를 줄일지 */
+        private double tolerance = 2.0;
+
+        /** 몇 건마다 최소 지연시간을 새로 잴지 */
+        private int probeInterval = 1000;
+    }
+}
@@ -1,26 +1,53 @@
 package com.jonghak.springbootweb.interceptor;
 
-import org.springframework.web.servlet.HandlerInterceptor;
+import com.jonghak.springbootweb.metrics.HandlerMetrics;
+import com.jonghak.springbootweb.metrics.RequestTimer;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-public class AnotherInterceptor implements HandlerInterceptor {
+/**
+ * 핸들러 실행 시간 측정 (/hello* 에만 적용)
+ *  ● preHandle ~ postHandle 시간을 HandlerMetrics.Phase.HANDLER 에 기록한다.
+ *  ● 핸들러에서 예외가 나면 postHandle 은 불리지 않으므로 기록하지 않고 afterCompletion 에서 정리만 한다.
+ *  ● 비동기 요청은 ASYNC 디스패치의 postHandle 에서 기록하므로 executor 에서 실행된 시간까지 포함된다.
+ */
+public class AnotherInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = AnotherInterceptor.class.getName() + ".start";
+
+    private final HandlerMetrics handlerMetrics;
+
+    private final RequestTimer timer = new RequestTimer();
+
+    public AnotherInterceptor(HandlerMetrics handlerMetrics) {
+        this.handlerMetrics = handlerMetrics;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        System.out.println("preHandle 2");
+        timer.resumeOrStart(request, START_ATTRIBUTE);
         return true;
     }
 
+    /**
+     * 핸들러가 DeferredResult 등을 돌려주면 postHandle/afterCompletion 대신 불린다.
+     *  ● 시작 시각을 request attribute 로 옮겨두고, ASYNC 디스패치의 preHandle 에서 이어서 잰다.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        timer.suspendTo(request, START_ATTRIBUTE);
+    }
+
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
-        System.out.println("postHandle 2");
+        handlerMetrics.record(HandlerMetrics.Phase.HANDLER, request, handler, timer.elapsed());
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        System.out.println("afterCompletion 2");
+        timer.stop();
     }
 }
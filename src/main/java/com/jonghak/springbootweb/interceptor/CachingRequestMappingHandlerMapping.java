@@ -0,0 +1,126 @@
+package com.jonghak.springbootweb.interceptor;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * - 핸들러 메소드별로 인터셉터 목록을 한 번만 정하는 RequestMappingHandlerMapping (web.interceptor-chain-cache.enabled=true)
+ *  1. 기본 구현은 요청마다 모든 인터셉터를 돌면서 addPathPatterns 로 등록된 인터셉터(MappedInterceptor)의 경로 패턴을 요청 경로와 비교한다.
+ *  2. 여기서는 (핸들러 메소드, 매칭된 @RequestMapping 패턴) 마다 처음 한 번 목록을 만들어 두고 다음부터는 그대로 쓴다.
+ *      ● 맵 두 번 조회로 찾으므로 키 객체를 만들지 않고, 인터셉터 개수와 관계없이 HandlerExecutionChain 하나만 만든다.
+ *  3. 매핑 패턴이 변수/와일드카드 없는 고정 경로면 그 패턴으로 오는 요청 경로는 모두 같으므로 MappedInterceptor 적용 여부도 처음 한 번에 정해진다.
+ *      ● 끝의 / 는 따로 매칭되므로 (trailing slash match) 있는 경우와 없는 경우를 따로 둔다.
+ *  4. /hello/{name} 처럼 변수가 있는 패턴은 같은 핸들러라도 요청 경로에 따라 인터셉터 패턴 매칭 결과가 다를 수 있다.
+ *      ● 이 경우 MappedInterceptor 만 요청마다 비교하고 (미리 파싱된 PathPattern 사용) 나머지는 캐시된 순서 그대로 쓴다.
+ *  5. 인터셉터 순서는 기본 구현과 같다.
+ */
+public class CachingRequestMappingHandlerMapping extends RequestMappingHandlerMapping {
+
+    private final ConcurrentMap<Method, ConcurrentMap<String, CachedChain[]>> chains = new ConcurrentHashMap<>();
+
+    @Override
+    protected HandlerExecutionChain getHandlerExecutionChain(Object handler, HttpServletRequest request) {
+        Object pattern = request.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || !(pattern instanceof String)) {
+            return super.getHandlerExecutionChain(handler, request);
+        }
+        Method method = ((HandlerMethod) handler).getMethod();
+        ConcurrentMap<String, CachedChain[]> byPattern = chains.get(method);
+        if (byPattern == null) {
+            byPattern = chains.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        }
+        CachedChain[] slots = byPattern.get(pattern);
+        if (slots == null) {
+            slots = byPattern.computeIfAbsent((String) pattern, key -> new CachedChain[2]);
+        }
+        int slot = request.getRequestURI().endsWith("/") ? 1 : 0;
+        CachedChain cached = slots[slot];
+        if (cached == null) {
+            // 동시에 처음 들어온 요청이 같이 만들어도 결과가 같으므로 잠그지 않는다. (CachedChain 은 불변)
+            cached = resolve((String) pattern, request);
+            slots[slot] = cached;
+        }
+        return cached.toChain(handler, request);
+    }
+
+    private CachedChain resolve(String pattern, HttpServletRequest request) {
+        boolean literal = isLiteral(pattern);
+        HandlerInterceptor[] adaptedInterceptors = getAdaptedInterceptors();
+        List<HandlerInterceptor> interceptors = new ArrayList<>();
+        boolean conditional = false;
+        if (adaptedInterceptors != null) {
+            for (HandlerInterceptor interceptor : adaptedInterceptors) {
+                if (!(interceptor instanceof MappedInterceptor)) {
+                    interceptors.add(interceptor);
+                } else if (!literal) {
+                    interceptors.add(interceptor);
+                    conditional = true;
+                } else if (((MappedInterceptor) interceptor).matches(request)) {
+                    interceptors.add(((MappedInterceptor) interceptor).getInterceptor());
+                }
+            }
+        }
+        return new CachedChain(interceptors.toArray(new HandlerInterceptor[0]), conditional);
+    }
+
+    private static boolean isLiteral(String pattern) {
+        return pattern.indexOf('{') < 0 && pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0;
+    }
+
+    /**
+     * 지금까지 목록을 만들어 둔 (핸들러 메소드, 패턴, 끝의 / 여부) 개수
+     */
+    public int getCachedChainCount() {
+        int count = 0;
+        for (ConcurrentMap<String, CachedChain[]> byPattern : chains.values()) {
+            for (CachedChain[] slots : byPattern.values()) {
+                for (CachedChain slot : slots) {
+                    if (slot != null) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static class CachedChain {
+
+        private final HandlerInterceptor[] interceptors;
+
+        /**
+         * 요청마다 경로를 비교해야 하는 MappedInterceptor 가 들어 있는지
+         */
+        private final boolean conditional;
+
+        CachedChain(HandlerInterceptor[] interceptors, boolean conditional) {
+            this.interceptors = interceptors;
+            this.conditional = conditional;
+        }
+
+        HandlerExecutionChain toChain(Object handler, HttpServletRequest request) {
+            if (!conditional) {
+                return new HandlerExecutionChain(handler, interceptors);
+            }
+            HandlerExecutionChain chain = new HandlerExecutionChain(handler);
+            for (HandlerInterceptor interceptor : interceptors) {
+                if (!(interceptor instanceof MappedInterceptor)) {
+                    chain.addInterceptor(interceptor);
+                } else if (((MappedInterceptor) interceptor).matches(request)) {
+                    chain.addInterceptor(((MappedInterceptor) interceptor).getInterceptor());
+                }
+            }
+            return chain;
+        }
+    }
+}
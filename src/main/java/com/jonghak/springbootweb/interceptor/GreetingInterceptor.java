@@ -1,7 +1,8 @@
 package com.jonghak.springbootweb.interceptor;
 
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
+import com.jonghak.springbootweb.metrics.HandlerMetrics;
+import com.jonghak.springbootweb.metrics.RequestTimer;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -37,22 +38,43 @@ import javax.servlet.http.HttpServletResponse;
  *
  *  * XSS 필터 적용 시 naver에서 만든 Lucy XSS Filter 참고!
  *
+ * - 요청 전체 지연시간 측정
+ *  1. preHandle ~ afterCompletion 시간을 핸들러별 히스토그램(HandlerMetrics.Phase.REQUEST)에 기록한다.
+ *  2. System.out 은 stdout lock 때문에 요청 스레드들을 직렬화시키므로 사용하지 않는다.
+ *  3. 결과는 /metrics/handlers (JSON), /metrics/prometheus 에서 조회
+ *  4. 비동기 요청(AsyncHandlerInterceptor)은 afterConcurrentHandlingStarted 에서 시작 시각을 보관했다가
+ *     ASYNC 디스패치의 afterCompletion 에서 처음 preHandle 부터의 전체 시간을 기록한다.
+ *
  */
-public class GreetingInterceptor implements HandlerInterceptor {
+public class GreetingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = GreetingInterceptor.class.getName() + ".start";
+
+    private final HandlerMetrics handlerMetrics;
+
+    private final RequestTimer timer = new RequestTimer();
+
+    public GreetingInterceptor(HandlerMetrics handlerMetrics) {
+        this.handlerMetrics = handlerMetrics;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        System.out.println("preHandle 1");
+        timer.resumeOrStart(request, START_ATTRIBUTE);
         return true;
     }
 
+    /**
+     * 핸들러가 DeferredResult 등을 돌려주면 postHandle/afterCompletion 대신 불린다.
+     *  ● 시작 시각을 request attribute 로 옮겨두고, ASYNC 디스패치의 preHandle 에서 이어서 잰다.
+     */
     @Override
-    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
-        System.out.println("postHandle 1");
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        timer.suspendTo(request, START_ATTRIBUTE);
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        System.out.println("afterCompletion 1");
+        handlerMetrics.record(HandlerMetrics.Phase.REQUEST, request, handler, timer.stop());
     }
 }
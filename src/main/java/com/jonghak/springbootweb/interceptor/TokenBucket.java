@@ -0,0 +1,48 @@
+package com.jonghak.springbootweb.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * - lock-free 토큰 버킷 (GCRA : Generic Cell Rate Algorithm)
+ *  1. 남은 토큰 수와 마지막 충전 시각을 따로 두지 않고, "다음 요청이 이론상 도착해야 할 시각"(TAT) 하나만 AtomicLong 에 둔다.
+ *  2. 요청마다 TAT 를 한 칸(1/rate 초) 뒤로 미는 CAS 한 번. 락도, 충전용 스레드도 없다.
+ *  3. TAT 가 현재보다 burst 칸 이상 앞서 있으면 거절하고, 기다려야 하는 시간을 돌려준다. (Retry-After)
+ *  4. refund 는 TAT 를 한 칸 앞으로 당겨서 받은 토큰 하나를 돌려준다.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * burst;
+    }
+
+    /**
+     * @return 0 이면 통과, 0보다 크면 거절 (다음 토큰까지 남은 nanos)
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * tryAcquire 로 받은 토큰을 쓰지 않았을 때 돌려준다.
+     */
+    void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
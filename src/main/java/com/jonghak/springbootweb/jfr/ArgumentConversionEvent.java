@@ -0,0 +1,44 @@
+package com.jonghak.springbootweb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 요청 파라미터 / 경로 변수 -> 핸들러 인자 변환 (Formatter.parse) 시간
+ */
+@Name("com.jonghak.springbootweb.ArgumentConversion")
+@Label("Argument Conversion")
+@Description("Formatter.parse of a request parameter or path variable")
+@Category({"Spring Web", "MVC"})
+@StackTrace(false)
+public class ArgumentConversionEvent extends Event {
+
+    @Label("Converter")
+    String converter;
+
+    @Label("Target Type")
+    Class<?> targetType;
+
+    @Label("Source")
+    String source;
+
+    public ArgumentConversionEvent(Class<?> converter, Class<?> targetType) {
+        this.converter = converter.getSimpleName();
+        this.targetType = targetType;
+    }
+
+    /**
+     * 끝난 시각을 기록하고, 이벤트가 켜져 있고 threshold 를 넘었을 때만 source 를 채워서 남긴다.
+     */
+    public void commit(String source) {
+        end();
+        if (shouldCommit()) {
+            this.source = source;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jonghak.springbootweb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * HandlerInterceptor 한 단계 (preHandle / postHandle / afterCompletion) 실행 시간
+ */
+@Name("com.jonghak.springbootweb.InterceptorPhase")
+@Label("Interceptor Phase")
+@Description("HandlerInterceptor preHandle, postHandle or afterCompletion")
+@Category({"Spring Web", "MVC"})
+@StackTrace(false)
+public class InterceptorPhaseEvent extends Event {
+
+    @Label("Interceptor")
+    String interceptor;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Handler")
+    String handler;
+}
@@ -0,0 +1,76 @@
+package com.jonghak.springbootweb.jfr;
+
+import com.jonghak.springbootweb.metrics.HandlerMetrics;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * - HandlerInterceptor 를 감싸서 단계마다 InterceptorPhaseEvent 를 남긴다.
+ *  1. 이벤트가 꺼져 있으면 begin/end/shouldCommit 은 JIT 에서 사라지고, 이름 계산도 하지 않는다.
+ *  2. 감싼 인터셉터가 AsyncHandlerInterceptor 면 afterConcurrentHandlingStarted 도 넘겨준다.
+ */
+public class JfrHandlerInterceptor implements AsyncHandlerInterceptor {
+
+    private final HandlerInterceptor delegate;
+
+    private final String name;
+
+    public JfrHandlerInterceptor(HandlerInterceptor delegate) {
+        this.delegate = delegate;
+        this.name = delegate.getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        InterceptorPhaseEvent event = new InterceptorPhaseEvent();
+        event.begin();
+        try {
+            return delegate.preHandle(request, response, handler);
+        } finally {
+            commit(event, "preHandle", request, handler);
+        }
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+        InterceptorPhaseEvent event = new InterceptorPhaseEvent();
+        event.begin();
+        try {
+            delegate.postHandle(request, response, handler, modelAndView);
+        } finally {
+            commit(event, "postHandle", request, handler);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        InterceptorPhaseEvent event = new InterceptorPhaseEvent();
+        event.begin();
+        try {
+            delegate.afterCompletion(request, response, handler, ex);
+        } finally {
+            commit(event, "afterCompletion", request, handler);
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (delegate instanceof AsyncHandlerInterceptor) {
+            ((AsyncHandlerInterceptor) delegate).afterConcurrentHandlingStarted(request, response, handler);
+        }
+    }
+
+    private void commit(InterceptorPhaseEvent event, String phase, HttpServletRequest request, Object handler) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.interceptor = name;
+            event.phase = phase;
+            event.handler = HandlerMetrics.nameOf(request, handler);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.jonghak.springbootweb.jfr;
+
+import com.jonghak.springbootweb.metrics.HandlerMetrics;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMessageConverterMethodProcessor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * - @RequestBody / @ResponseBody, HttpEntity 처리기(AbstractMessageConverterMethodProcessor)를 감싸서 MessageConversionEvent 를 남긴다.
+ *  1. 컨버터 자체를 감싸면 컨버터 타입으로 분기하는 코드(ResponseBodyAdvice 의 converterType 등)가 깨지므로 한 단계 바깥에서 잰다.
+ *  2. 읽기는 resolveArgument, 쓰기는 handleReturnValue 전체 (컨버터 선택, advice, 직렬화, 응답 버퍼에 쓰기)
+ */
+public class JfrMessageConversionProcessor implements HandlerMethodArgumentResolver, HandlerMethodReturnValueHandler {
+
+    private final AbstractMessageConverterMethodProcessor delegate;
+
+    public JfrMessageConversionProcessor(AbstractMessageConverterMethodProcessor delegate) {
+        this.delegate = delegate;
+    }
+
+    public static List<HandlerMethodArgumentResolver> wrapArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        return resolvers.stream()
+                .map(resolver -> resolver instanceof AbstractMessageConverterMethodProcessor
+                        ? new JfrMessageConversionProcessor((AbstractMessageConverterMethodProcessor) resolver)
+                        : resolver)
+                .collect(Collectors.toList());
+    }
+
+    public static List<HandlerMethodReturnValueHandler> wrapReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+        return handlers.stream()
+                .map(handler -> handler instanceof AbstractMessageConverterMethodProcessor
+                        ? new JfrMessageConversionProcessor((AbstractMessageConverterMethodProcessor) handler)
+                        : handler)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return delegate.supportsParameter(parameter);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        MessageConversionEvent event = new MessageConversionEvent();
+        event.begin();
+        try {
+            return delegate.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+                event.direction = "read";
+                event.handler = handlerName(parameter);
+                event.bodyType = parameter.getGenericParameterType().getTypeName();
+                event.contentType = request != null ? request.getContentType() : null;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return delegate.supportsReturnType(returnType);
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        MessageConversionEvent event = new MessageConversionEvent();
+        event.begin();
+        try {
+            delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+                event.direction = "write";
+                event.handler = handlerName(returnType);
+                event.bodyType = returnValue != null ? returnValue.getClass().getName() : returnType.getGenericParameterType().getTypeName();
+                event.contentType = response != null ? response.getContentType() : null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * HandlerMetrics 와 같은 형식 (Class#method, 오버로드면 파라미터 타입까지)
+     */
+    private static String handlerName(MethodParameter parameter) {
+        return HandlerMetrics.nameOf(parameter.getContainingClass(), parameter.getMethod());
+    }
+}
@@ -0,0 +1,106 @@
+package com.jonghak.springbootweb.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * - 실행 중인 노드의 JFR 기록 시작/종료 (jfr.endpoint.enabled=true 일 때만)
+ *  1. POST /jfr/start?settings=profile : JDK 설정(default | profile) + 이 애플리케이션의 커스텀 이벤트로 기록 시작
+ *      ● 이미 기록 중이면 409. max-age 를 넘은 오래된 데이터는 버린다. (jfr.recording.max-age)
+ *  2. POST /jfr/stop : 기록을 멈추고 .jfr 파일을 내려준다. (JDK Mission Control, jfr print 로 열기)
+ *      ● 파일이 클 수 있으므로 StreamingResponseBody 로 보내고 다 보낸 뒤 임시 파일을 지운다.
+ *  3. 스레드 덤프, 시스템 속성 등이 들어가므로 관리용 포트/네트워크에서만 연다.
+ */
+@RestController
+@ConditionalOnProperty(name = "jfr.endpoint.enabled", havingValue = "true")
+public class JfrRecordingController {
+
+    private final Duration maxAge;
+
+    private Recording recording;
+
+    public JfrRecordingController(@Value("${jfr.recording.max-age:10m}") Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @PostMapping("/jfr/start")
+    public synchronized Map<String, Object> start(@RequestParam(value = "settings", defaultValue = "profile") String settings) throws IOException {
+        if (recording != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "JFR recording " + recording.getId() + " is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown JFR settings: " + settings);
+        }
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName("springboot-web");
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(maxAge);
+        newRecording.enable(InterceptorPhaseEvent.class);
+        newRecording.enable(ArgumentConversionEvent.class);
+        newRecording.enable(MessageConversionEvent.class);
+        newRecording.enable(RepositoryCallEvent.class);
+        newRecording.start();
+        recording = newRecording;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", newRecording.getId());
+        result.put("settings", configuration.getName());
+        result.put("maxAge", maxAge.toString());
+        return result;
+    }
+
+    @PostMapping("/jfr/stop")
+    public synchronized ResponseEntity<StreamingResponseBody> stop() throws IOException {
+        if (recording == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No JFR recording is running");
+        }
+        Recording stopped = recording;
+        recording = null;
+        Path file = Files.createTempFile("springboot-web-", ".jfr");
+        try {
+            stopped.stop();
+            stopped.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            stopped.close();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("recording-" + stopped.getId() + ".jfr").build().toString())
+                .body(body);
+    }
+}
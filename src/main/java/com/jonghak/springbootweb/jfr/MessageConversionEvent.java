@@ -0,0 +1,31 @@
+package com.jonghak.springbootweb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @RequestBody 읽기 / @ResponseBody 쓰기 시간 (RequestBodyAdvice, ResponseBodyAdvice, 컨버터 선택 포함)
+ */
+@Name("com.jonghak.springbootweb.MessageConversion")
+@Label("Message Conversion")
+@Description("HttpMessageConverter read of a request body or write of a response body")
+@Category({"Spring Web", "MVC"})
+@StackTrace(false)
+public class MessageConversionEvent extends Event {
+
+    @Label("Direction")
+    String direction;
+
+    @Label("Handler")
+    String handler;
+
+    @Label("Body Type")
+    String bodyType;
+
+    @Label("Content Type")
+    String contentType;
+}
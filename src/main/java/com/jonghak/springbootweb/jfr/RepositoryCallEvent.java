@@ -0,0 +1,28 @@
+package com.jonghak.springbootweb.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 스프링 데이터 리포지토리 메소드 호출 시간 (트랜잭션 시작/커밋 포함, 캐시 hit 는 리포지토리까지 오지 않으므로 제외)
+ */
+@Name("com.jonghak.springbootweb.RepositoryCall")
+@Label("Repository Call")
+@Description("Spring Data repository method invocation including its transaction")
+@Category({"Spring Web", "Database"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,47 @@
+package com.jonghak.springbootweb.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+/**
+ * - 스프링 데이터 리포지토리 호출마다 RepositoryCallEvent 를 남긴다.
+ *  1. 리포지토리 프록시의 가장 바깥(트랜잭션 인터셉터보다 앞)에 넣어서 트랜잭션 시작/커밋 시간까지 포함한다.
+ *  2. @Cacheable 은 리포지토리 빈 바깥의 프록시라서 캐시 hit 는 이벤트가 생기지 않는다. (H2 까지 간 호출만)
+ */
+public class RepositoryCallInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    public RepositoryCallInterceptor(Class<?> repositoryInterface) {
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    /**
+     * JpaRepositoryFactory 에 등록할 RepositoryProxyPostProcessor
+     */
+    public static RepositoryProxyPostProcessor postProcessor() {
+        return (factory, repositoryInformation) ->
+                factory.addAdvice(0, new RepositoryCallInterceptor(repositoryInformation.getRepositoryInterface()));
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jonghak.springbootweb.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * - 핸들러별 지연시간 히스토그램 저장소
+ *  1. Phase.REQUEST : preHandle ~ afterCompletion (뷰 랜더링/메세지 변환 포함 전체 시간) - GreetingInterceptor
+ *  2. Phase.HANDLER : preHandle ~ postHandle (핸들러 실행 시간) - AnotherInterceptor
+ *
+ * - key 는 HandlerMethod 의 Method (요청마다 HandlerMethod 객체는 새로 만들어지지만 Method 는 같다.)
+ *   HandlerMethod 가 아닌 핸들러(리소스 핸들러, 뷰 컨트롤러)는 핸들러 객체 + 매핑 패턴을 key 로 쓴다.
+ *
+ * - 이름 (/metrics/handlers 의 key, /metrics/prometheus 의 handler label) 은 phase 안에서 겹치지 않는다.
+ *  1. HandlerMethod : Class#method, 같은 이름의 메소드가 더 있으면(오버로드) Class#method(String,int)
+ *  2. 그 밖의 핸들러 : 클래스 이름[매핑 패턴] (ex. ResourceHttpRequestHandler[/mobile/**])
+ *  3. 그래도 겹치면 ~2, ~3 ... 을 붙인다.
+ */
+@Component
+public class HandlerMetrics {
+
+    public enum Phase {
+        REQUEST, HANDLER;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ConcurrentMap<Object, LatencyHistogram> requestHistograms = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Object, LatencyHistogram> handlerHistograms = new ConcurrentHashMap<>();
+
+    private final Set<String> requestNames = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> handlerNames = ConcurrentHashMap.newKeySet();
+
+    public void record(Phase phase, HttpServletRequest request, Object handler, long nanos) {
+        if (handler == null || nanos < 0) {
+            return;
+        }
+        ConcurrentMap<Object, LatencyHistogram> histograms = histograms(phase);
+        Object key = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethod()
+                : Arrays.asList(handler, patternOf(request));
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) { // 처음 한 번만 이름을 만들고 등록한다.
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram(uniqueName(phase, nameOf(request, handler))));
+        }
+        histogram.record(nanos);
+    }
+
+    private String uniqueName(Phase phase, String name) {
+        Set<String> names = phase == Phase.REQUEST ? requestNames : handlerNames;
+        String unique = name;
+        for (int i = 2; !names.add(unique); i++) {
+            unique = name + "~" + i;
+        }
+        return unique;
+    }
+
+    public Collection<LatencyHistogram> getHistograms(Phase phase) {
+        return histograms(phase).values();
+    }
+
+    private ConcurrentMap<Object, LatencyHistogram> histograms(Phase phase) {
+        return phase == Phase.REQUEST ? requestHistograms : handlerHistograms;
+    }
+
+    public static String nameOf(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            return nameOf(handlerMethod.getBeanType(), handlerMethod.getMethod());
+        }
+        String pattern = patternOf(request);
+        return handler.getClass().getSimpleName() + (pattern != null ? "[" + pattern + "]" : "");
+    }
+
+    public static String nameOf(Class<?> beanType, Method method) {
+        String name = beanType.getSimpleName() + "#" + method.getName();
+        if (ClassUtils.getMethodCountForName(beanType, method.getName()) > 1) {
+            name += Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+                    .collect(Collectors.joining(",", "(", ")"));
+        }
+        return name;
+    }
+
+    private static String patternOf(HttpServletRequest request) {
+        Object pattern = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : null;
+        return pattern != null ? pattern.toString() : null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.jonghak.springbootweb.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * - 고정 버킷 지연시간 히스토그램
+ *  1. 버킷/카운트/합계는 LongAdder (스레드별로 셀을 나눠서 더하기 때문에 CAS 경합이 적다.)
+ *  2. 최대값은 LongAccumulator(Math::max)
+ *  3. record 는 lock 도, 객체 생성도 하지 않는다.
+ *  4. 버킷은 누적이 아닌 구간별 카운트로 보관하고, 누적값(Prometheus le)은 조회할 때 계산한다.
+ */
+public class LatencyHistogram {
+
+    /**
+     * 버킷 상한 (마이크로초). 마지막 버킷은 +Inf
+     */
+    static final long[] BUCKET_BOUNDS_MICROS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MICROS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = TimeUnit.MICROSECONDS.toNanos(BUCKET_BOUNDS_MICROS[i]);
+        }
+    }
+
+    private final String name;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        buckets[bucketIndex(nanos)].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    private static int bucketIndex(long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+            if (nanos <= BUCKET_BOUNDS_NANOS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_NANOS.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 구간별 카운트. 마지막 원소가 +Inf 버킷
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public Map<String, Object> toMap() {
+        long count = getCount();
+        long sum = getSumNanos();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", count);
+        values.put("sumMillis", sum / 1_000_000.0);
+        values.put("meanMillis", count == 0 ? 0.0 : sum / 1_000_000.0 / count);
+        values.put("maxMillis", getMaxNanos() / 1_000_000.0);
+
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        long[] counts = getBucketCounts();
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            buckets.put("le" + BUCKET_BOUNDS_MICROS[i] + "us", counts[i]);
+        }
+        buckets.put("inf", counts[counts.length - 1]);
+        values.put("buckets", buckets);
+        return values;
+    }
+}
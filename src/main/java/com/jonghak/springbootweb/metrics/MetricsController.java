@@ -0,0 +1,127 @@
+package com.jonghak.springbootweb.metrics;
+
+import com.jonghak.springbootweb.async.BoundedTaskExecutor;
+import com.jonghak.springbootweb.interceptor.AdmissionControl;
+import com.jonghak.springbootweb.sample.PersonWriteBehindQueue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * - 핸들러별 지연시간 조회
+ *  1. /metrics/handlers   : JSON
+ *  2. /metrics/prometheus : Prometheus text format (0.0.4)
+ *
+ * - BoundedTaskExecutor 상태 (sample.async.enabled=true 일 때)
+ *  1. /metrics/executor   : JSON (큐 길이, 실행중 스레드, 완료/거절 건수)
+ *  2. /metrics/prometheus 에 executor_* 로 함께 나온다.
+ *
+ * - AdmissionControlInterceptor 상태 (admission.enabled=true 일 때)
+ *  1. /metrics/admission  : JSON (규칙별 수락/429/503 건수, 현재 동시 처리 한도)
+ *
+ * - PersonWriteBehindQueue 상태 (person.write-behind.enabled=true 일 때)
+ *  1. /metrics/write-behind : JSON (큐 길이, 덮어쓴/거절/쓴/실패 건수)
+ */
+@RestController
+public class MetricsController {
+
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HandlerMetrics handlerMetrics;
+
+    private final ObjectProvider<BoundedTaskExecutor> executors;
+
+    private final AdmissionControl admissionControl;
+
+    private final ObjectProvider<PersonWriteBehindQueue> writeBehindQueue;
+
+    public MetricsController(HandlerMetrics handlerMetrics, ObjectProvider<BoundedTaskExecutor> executors,
+                             AdmissionControl admissionControl, ObjectProvider<PersonWriteBehindQueue> writeBehindQueue) {
+        this.handlerMetrics = handlerMetrics;
+        this.executors = executors;
+        this.admissionControl = admissionControl;
+        this.writeBehindQueue = writeBehindQueue;
+    }
+
+    @GetMapping("/metrics/handlers")
+    public Map<String, Map<String, Object>> handlers() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (HandlerMetrics.Phase phase : HandlerMetrics.Phase.values()) {
+            Map<String, Object> histograms = new LinkedHashMap<>();
+            for (LatencyHistogram histogram : handlerMetrics.getHistograms(phase)) {
+                histograms.put(histogram.getName(), histogram.toMap());
+            }
+            result.put(phase.label(), histograms);
+        }
+        return result;
+    }
+
+    @GetMapping("/metrics/executor")
+    public Map<String, Map<String, Object>> executor() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        executors.orderedStream().forEach(executor -> result.put(executor.getName(), executor.getStats()));
+        return result;
+    }
+
+    @GetMapping("/metrics/admission")
+    public Map<String, Map<String, Object>> admission() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        admissionControl.getInterceptors().forEach(interceptor -> result.put(interceptor.getName(), interceptor.getStats()));
+        return result;
+    }
+
+    @GetMapping("/metrics/write-behind")
+    public Map<String, Object> writeBehind() {
+        PersonWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        return queue != null ? queue.getStats() : Map.of();
+    }
+
+    @GetMapping(value = "/metrics/prometheus", produces = PROMETHEUS_CONTENT_TYPE)
+    public String prometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP http_handler_duration_seconds Spring MVC handler latency by handler method and phase\n");
+        out.append("# TYPE http_handler_duration_seconds histogram\n");
+        for (HandlerMetrics.Phase phase : HandlerMetrics.Phase.values()) {
+            for (LatencyHistogram histogram : handlerMetrics.getHistograms(phase)) {
+                String labels = "handler=\"" + escape(histogram.getName()) + "\",phase=\"" + phase.label() + "\"";
+                long[] counts = histogram.getBucketCounts();
+                long cumulative = 0;
+                for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_MICROS.length; i++) {
+                    cumulative += counts[i];
+                    out.append("http_handler_duration_seconds_bucket{").append(labels)
+                            .append(",le=\"").append(LatencyHistogram.BUCKET_BOUNDS_MICROS[i] / 1_000_000.0).append("\"} ")
+                            .append(cumulative).append('\n');
+                }
+                cumulative += counts[counts.length - 1];
+                out.append("http_handler_duration_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                        .append(cumulative).append('\n');
+                out.append("http_handler_duration_seconds_count{").append(labels).append("} ")
+                        .append(histogram.getCount()).append('\n');
+                out.append("http_handler_duration_seconds_sum{").append(labels).append("} ")
+                        .append(histogram.getSumNanos() / 1_000_000_000.0).append('\n');
+            }
+        }
+        executors.orderedStream().forEach(executor -> appendExecutor(out, executor));
+        return out.toString();
+    }
+
+    private static void appendExecutor(StringBuilder out, BoundedTaskExecutor executor) {
+        String labels = "{executor=\"" + escape(executor.getName()) + "\"} ";
+        Map<String, Object> stats = executor.getStats();
+        out.append("# TYPE executor_queue_depth gauge\n")
+                .append("executor_queue_depth").append(labels).append(stats.get("queueDepth")).append('\n');
+        out.append("# TYPE executor_active_threads gauge\n")
+                .append("executor_active_threads").append(labels).append(stats.get("activeCount")).append('\n');
+        out.append("# TYPE executor_completed_total counter\n")
+                .append("executor_completed_total").append(labels).append(stats.get("completedCount")).append('\n');
+        out.append("# TYPE executor_rejected_total counter\n")
+                .append("executor_rejected_total").append(labels).append(stats.get("rejectedCount")).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,83 @@
+package com.jonghak.springbootweb.metrics;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+
+/**
+ * 인터셉터 preHandle ~ afterCompletion 사이의 시작 시간을 스레드별로 보관
+ *  ● request attribute 에 Long 을 넣으면 요청마다 박싱 객체가 생기므로 스레드별 long[] 을 재사용한다.
+ *  ● /hi 처럼 forward 되는 요청은 같은 스레드에서 인터셉터가 한 번 더 불리기 때문에 스택으로 관리한다.
+ *  ● 비동기 요청은 다른 스레드에서 끝나므로 suspendTo 로 꺼내 request attribute 에 옮겼다가 resumeOrStart 로 되돌린다.
+ */
+public class RequestTimer {
+
+    private final ThreadLocal<Starts> starts = ThreadLocal.withInitial(Starts::new);
+
+    public void start() {
+        starts.get().push(System.nanoTime());
+    }
+
+    /**
+     * 가장 최근 start 이후 경과 시간 (스택은 그대로)
+     */
+    public long elapsed() {
+        Starts s = starts.get();
+        return s.depth == 0 ? -1 : System.nanoTime() - s.values[s.depth - 1];
+    }
+
+    /**
+     * 가장 최근 start 이후 경과 시간을 돌려주고 스택에서 꺼낸다.
+     */
+    public long stop() {
+        long elapsed = elapsed();
+        starts.get().pop();
+        return elapsed;
+    }
+
+    /**
+     * 가장 최근 start 시각을 스택에서 꺼내 request attribute 로 옮긴다. (afterConcurrentHandlingStarted, 스레드를 떠나기 전에)
+     *  ● 스택이 비어 있으면 attribute 를 남기지 않는다. (ASYNC 디스패치에서 새로 시작)
+     */
+    public void suspendTo(HttpServletRequest request, String attribute) {
+        Starts s = starts.get();
+        if (s.depth == 0) {
+            return;
+        }
+        request.setAttribute(attribute, s.values[s.depth - 1]);
+        s.pop();
+    }
+
+    /**
+     * ASYNC 디스패치면 suspendTo 로 옮겨 둔 시작 시각을 현재 스레드의 스택에 다시 넣고, 아니면 새로 시작한다. (preHandle)
+     */
+    public void resumeOrStart(HttpServletRequest request, String attribute) {
+        Object start = request.getAttribute(attribute);
+        if (request.getDispatcherType() == DispatcherType.ASYNC && start instanceof Long) {
+            request.removeAttribute(attribute);
+            starts.get().push((Long) start);
+        } else {
+            start();
+        }
+    }
+
+    private static class Starts {
+
+        private long[] values = new long[4];
+
+        private int depth;
+
+        void push(long value) {
+            if (depth == values.length) {
+                values = Arrays.copyOf(values, depth * 2);
+            }
+            values[depth++] = value;
+        }
+
+        void pop() {
+            if (depth > 0) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.jonghak.springbootweb.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * - 빈별 초기화 시간 보고서 (시작이 끝난 뒤 한 번)
+ *  1. SpringbootWebApplication.main 이 BufferingApplicationStartup 을 쓸 때만 동작한다. (테스트 컨텍스트에서는 아무것도 하지 않음)
+ *  2. spring.beans.instantiate 단계마다 전체 시간과, 그 안에서 만들어진 다른 빈 시간을 뺀 자기 시간(self)을 구한다.
+ *  3. 전체 시작 시간과 자기 시간 상위 startup.report.top 개를 로그로 남기고,
+ *     startup.report.file 이 있으면 전체 목록을 JSON 으로 쓴다. (CI 에서 숫자로 추적)
+ *  4. 보고 후 버퍼를 비운다.
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    public static final int CAPACITY = 10_000;
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    private final ApplicationStartup applicationStartup;
+
+    private final ObjectMapper objectMapper;
+
+    private final int top;
+
+    private final String file;
+
+    public StartupReport(ApplicationStartup applicationStartup, ObjectMapper objectMapper,
+                         @Value("${startup.report.top:10}") int top,
+                         @Value("${startup.report.file:}") String file) {
+        this.applicationStartup = applicationStartup;
+        this.objectMapper = objectMapper;
+        this.top = top;
+        this.file = file;
+    }
+
+    @EventListener
+    public void report(ApplicationReadyEvent event) throws IOException {
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        BufferingApplicationStartup startup = (BufferingApplicationStartup) applicationStartup;
+        List<BeanTiming> beans = beanTimings(startup.drainBufferedTimeline());
+        Duration timeTaken = event.getTimeTaken();
+
+        log.info("Startup {}ms, {} beans instantiated, slowest (self time):", timeTaken != null ? timeTaken.toMillis() : -1, beans.size());
+        beans.stream().limit(top).forEach(bean -> log.info("  {}ms (total {}ms) {}", bean.getSelfMillis(), bean.getTotalMillis(), bean.getName()));
+
+        if (StringUtils.hasText(file)) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startupMillis", timeTaken != null ? timeTaken.toMillis() : null);
+            report.put("beans", beans);
+            Path path = Paths.get(file);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        }
+    }
+
+    /**
+     * @return 자기 시간이 긴 순서
+     */
+    static List<BeanTiming> beanTimings(StartupTimeline timeline) {
+        Map<Long, BeanTiming> byId = new HashMap<>();
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            if (BEAN_INSTANTIATE.equals(step.getName())) {
+                byId.put(step.getId(), new BeanTiming(beanName(step), event.getDuration().toNanos()));
+            }
+        }
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            BeanTiming parent = step.getParentId() != null ? byId.get(step.getParentId()) : null;
+            if (parent != null && BEAN_INSTANTIATE.equals(step.getName())) {
+                parent.selfNanos -= event.getDuration().toNanos();
+            }
+        }
+        List<BeanTiming> beans = new ArrayList<>(byId.values());
+        beans.sort(Comparator.comparingLong((BeanTiming bean) -> bean.selfNanos).reversed());
+        return beans;
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    static class BeanTiming {
+
+        private final String name;
+
+        private final long totalNanos;
+
+        private long selfNanos;
+
+        BeanTiming(String name, long totalNanos) {
+            this.name = name;
+            this.totalNanos = totalNanos;
+            this.selfNanos = totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTotalMillis() {
+            return totalNanos / 1_000_000L;
+        }
+
+        public long getSelfMillis() {
+            return selfNanos / 1_000_000L;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jonghak.springbootweb.resource;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * - InMemoryResourceResolver.CachedResource 응답 쓰기
+ *  1. 기본 ResourceHttpMessageConverter 는 InputStream 을 4KB 버퍼로 나눠 복사한다.
+ *  2. CachedResource 는
+ *      ● 원본이 파일이고 sendfile-threshold 이상이며 톰캣이 sendfile 을 지원하면 본문을 쓰지 않고 sendfile 속성만 넘긴다.
+ *        (톰캣이 FileChannel.transferTo 로 커널에서 바로 소켓으로 보낸다. jar 안의 리소스는 파일이 아니라 해당 없음)
+ *      ● 아니면 톰캣 출력 스트림에 direct ByteBuffer 를 한 번에 넘긴다. (힙 byte[] 복사 없음)
+ *      ● 톰캣이 아닌 경우(MockMvc 등)에만 byte[] 로 한 번 복사해서 쓴다.
+ *  3. 조건부 GET(If-Modified-Since -> 304)은 ResourceHttpRequestHandler 가 캐시된 lastModified 로 처리한다.
+ *  4. ResourceHttpRequestHandler 는 If-None-Match 를 보지 않으므로, 응답에 ETag 가 있으면 (ImmutableResourceResolver 의 strong ETag)
+ *     본문을 쓰기 전에 여기서 비교하고 같으면 304 로 끝낸다.
+ */
+public class CachedResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final boolean TOMCAT_PRESENT = ClassUtils.isPresent(
+            "org.apache.catalina.connector.CoyoteOutputStream", CachedResourceHttpMessageConverter.class.getClassLoader());
+
+    private final long sendfileThreshold;
+
+    public CachedResourceHttpMessageConverter(long sendfileThreshold) {
+        this.sendfileThreshold = sendfileThreshold;
+    }
+
+    @Override
+    protected void writeInternal(Resource resource, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (notModified()) {
+            outputMessage.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return;
+        }
+        super.writeInternal(resource, outputMessage);
+    }
+
+    private boolean notModified() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+        if (response == null || request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        return etag != null && new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!(resource instanceof InMemoryResourceResolver.CachedResource)) {
+            super.writeContent(resource, outputMessage);
+            return;
+        }
+        StaticResourceCache.Entry entry = ((InMemoryResourceResolver.CachedResource) resource).getEntry();
+        if (sendfile(entry)) {
+            return;
+        }
+        OutputStream body = outputMessage.getBody();
+        ByteBuffer buffer = entry.buffer();
+        if (TOMCAT_PRESENT && body instanceof org.apache.catalina.connector.CoyoteOutputStream) {
+            ((org.apache.catalina.connector.CoyoteOutputStream) body).write(buffer);
+        } else {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            body.write(bytes);
+        }
+    }
+
+    private boolean sendfile(StaticResourceCache.Entry entry) {
+        File file = entry.file();
+        if (file == null || entry.size() < sendfileThreshold || file.length() != entry.size()) {
+            return false;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START, 0L);
+        request.setAttribute(SENDFILE_END, (long) entry.size());
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.jonghak.springbootweb.resource;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * - 버전(내용 해시)이 붙은 경로로 찾은 리소스는 1년 immutable 캐시
+ *  1. 체인 순서 : CachingResourceResolver -> ImmutableResourceResolver -> EncodedResourceResolver -> VersionResourceResolver -> PathResourceResolver
+ *  2. VersionResourceResolver 는 버전 경로로 찾았을 때만 weak ETag(W/"{hash}") 를 붙인다. ETag 가 있으면 버전 경로로 판단한다.
+ *      ● 내용이 바뀌면 URL 이 바뀌므로 Cache-Control: public, max-age=31536000, immutable
+ *      ● 해시가 곧 내용이므로 strong ETag 로 바꾸고, 인코딩별 본문이 다르므로 인코딩을 붙인다. ("{hash}-gzip")
+ *      ● If-None-Match 비교(304)는 CachedResourceHttpMessageConverter 가 한다.
+ *  3. 버전이 없는 경로는 리소스 핸들러의 기본 CacheControl 그대로 둔다.
+ *  4. HttpResource 헤더는 ResourceHttpRequestHandler 가 기본 Cache-Control 을 쓴 뒤에 setHeader 하므로 덮어쓴다.
+ */
+public class ImmutableResourceResolver extends AbstractResourceResolver {
+
+    static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource instanceof HttpResource && ((HttpResource) resource).getResponseHeaders().getETag() != null) {
+            return new ImmutableResource((HttpResource) resource);
+        }
+        return resource;
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    static final class ImmutableResource extends AbstractResource implements HttpResource {
+
+        private final HttpResource resource;
+
+        ImmutableResource(HttpResource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(resource.getResponseHeaders());
+            String etag = headers.getETag();
+            if (etag != null) {
+                String version = etag.substring(etag.indexOf('"') + 1, etag.lastIndexOf('"'));
+                String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+                headers.setETag("\"" + (encoding != null ? version + "-" + encoding : version) + "\"");
+            }
+            headers.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+            return headers;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return resource.getInputStream();
+        }
+
+        @Override
+        public boolean exists() {
+            return resource.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return resource.isReadable();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return resource.isOpen();
+        }
+
+        @Override
+        public boolean isFile() {
+            return resource.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return resource.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return resource.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        @Nullable
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        /**
+         * AbstractResource 의 equals/hashCode 는 description 으로 비교한다.
+         * CachingResourceTransformer 가 리소스를 키로 캐시하므로 버전 없는 같은 파일과 구분되도록 다르게 둔다.
+         */
+        @Override
+        public String getDescription() {
+            return "immutable " + resource.getDescription();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.jonghak.springbootweb.resource;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * - 찾은 리소스의 본문을 StaticResourceCache 에서 읽도록 감싼다.
+ *  1. 체인 맨 앞(CachingResourceResolver 바로 뒤)에 둔다. 인코딩/버전이 결정된 최종 리소스를 감싸야 하기 때문.
+ *  2. CachingResourceResolver 는 경로별 Resource 객체를 제한 없이 들고 있으므로 CachedResource 는 본문을 직접 들고 있지 않는다.
+ *      ● 본문은 항상 StaticResourceCache 에서 꺼내고, 내보내졌으면 다시 읽는다. (전체 크기 제한 유지)
+ *  3. 응답 쓰기는 CachedResourceHttpMessageConverter 가 맡는다.
+ */
+public class InMemoryResourceResolver extends AbstractResourceResolver {
+
+    private final StaticResourceCache cache;
+
+    public InMemoryResourceResolver(StaticResourceCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        try {
+            if (resource != null && cache.isCacheable(resource)) {
+                return new CachedResource(resource, cache);
+            }
+        } catch (IOException e) {
+            logger.debug("Not caching " + resource.getDescription(), e);
+        }
+        return resource;
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    public static final class CachedResource extends AbstractResource implements HttpResource {
+
+        private final Resource resource;
+
+        private final StaticResourceCache cache;
+
+        CachedResource(Resource resource, StaticResourceCache cache) {
+            this.resource = resource;
+            this.cache = cache;
+        }
+
+        public StaticResourceCache.Entry getEntry() {
+            return cache.get(resource);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(getEntry().buffer());
+        }
+
+        @Override
+        public long contentLength() {
+            return getEntry().size();
+        }
+
+        @Override
+        public long lastModified() {
+            return getEntry().lastModified();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return resource instanceof HttpResource ? ((HttpResource) resource).getResponseHeaders() : new HttpHeaders();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public boolean isReadable() {
+            return true;
+        }
+
+        @Override
+        public boolean isFile() {
+            return resource.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        @Nullable
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        /**
+         * CachingResourceTransformer 가 description 으로 비교하므로 감싸지 않은 리소스와 구분한다.
+         */
+        @Override
+        public String getDescription() {
+            return "cached " + resource.getDescription();
+        }
+    }
+
+    /**
+     * Range 요청(ResourceRegionHttpMessageConverter) 처럼 스트림으로 읽는 경우
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
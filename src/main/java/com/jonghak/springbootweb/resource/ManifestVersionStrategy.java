@@ -0,0 +1,61 @@
+package com.jonghak.springbootweb.resource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.servlet.resource.AbstractVersionStrategy;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * - 빌드 시점에 만든 내용 해시로 버전 경로 만들기 (index.html -> index-{md5}.html)
+ *  1. 빌드 시 StaticResourcePrecompressor(src/build/java)가 남긴 static-resources.properties 에서 클래스패스 경로로 해시를 찾는다.
+ *  2. 매니페스트에 없으면 (IDE 에서 빌드 단계 없이 실행 등) ContentVersionStrategy 와 같은 방식으로 직접 md5 를 계산한다.
+ *      ● 두 경우 모두 같은 값이라 빌드 단계 유무와 관계없이 같은 URL 이 나온다.
+ */
+public class ManifestVersionStrategy extends AbstractVersionStrategy {
+
+    public static final String MANIFEST = "static-resources.properties";
+
+    private final Properties manifest;
+
+    public ManifestVersionStrategy() {
+        this(new ClassPathResource(MANIFEST));
+    }
+
+    public ManifestVersionStrategy(Resource manifestResource) {
+        super(new FileNameVersionPathStrategy() {
+        });
+        this.manifest = loadManifest(manifestResource);
+    }
+
+    @Override
+    public String getResourceVersion(Resource resource) {
+        if (resource instanceof ClassPathResource) {
+            String version = manifest.getProperty(((ClassPathResource) resource).getPath());
+            if (version != null) {
+                return version;
+            }
+        }
+        try {
+            return DigestUtils.md5DigestAsHex(FileCopyUtils.copyToByteArray(resource.getInputStream()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to calculate hash for " + resource, e);
+        }
+    }
+
+    private Properties loadManifest(Resource manifestResource) {
+        if (!manifestResource.exists()) {
+            logger.info(manifestResource.getDescription() + " not found, resource versions will be calculated at runtime");
+            return new Properties();
+        }
+        try {
+            return PropertiesLoaderUtils.loadProperties(manifestResource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load " + manifestResource.getDescription(), e);
+        }
+    }
+}
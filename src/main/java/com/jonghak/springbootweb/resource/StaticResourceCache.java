@@ -0,0 +1,128 @@
+package com.jonghak.springbootweb.resource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * - 정적 리소스 본문 캐시 (InMemoryResourceResolver 가 사용)
+ *  1. 처음 요청될 때 한 번만 읽어서 direct ByteBuffer(힙 밖)에 담는다.
+ *  2. 전체 바이트 수(static-resources.cache.max-size)로 제한하고 넘치면 오래 안 쓰인 것부터 내보낸다. (Caffeine, 크기 기준)
+ *      ● max-entry-size 보다 크거나 길이를 모르는 파일은 캐시하지 않고 기존처럼 스트림으로 내려준다.
+ *      ● 항목 크기는 int (ByteBuffer, weigher) 이므로 max-entry-size 는 2GB 보다 작아야 한다.
+ *  3. 키는 리소스 description 이라 같은 파일이라도 .gz/.br, 버전 경로는 각각 따로 담긴다.
+ */
+@Component
+public class StaticResourceCache {
+
+    private final Cache<String, Entry> cache;
+
+    private final long maxEntrySize;
+
+    private final long sendfileThreshold;
+
+    public StaticResourceCache(@Value("${static-resources.cache.max-size:32MB}") DataSize maxSize,
+                               @Value("${static-resources.cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                               @Value("${static-resources.cache.sendfile-threshold:48KB}") DataSize sendfileThreshold) {
+        if (maxEntrySize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("static-resources.cache.max-entry-size must not exceed " + Integer.MAX_VALUE + " bytes");
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> entry.size())
+                .recordStats()
+                .build();
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.sendfileThreshold = sendfileThreshold.toBytes();
+    }
+
+    public boolean isCacheable(Resource resource) throws IOException {
+        if (!resource.isReadable()) {
+            return false;
+        }
+        long length = resource.contentLength();
+        return length >= 0 && length <= maxEntrySize;
+    }
+
+    public long getSendfileThreshold() {
+        return sendfileThreshold;
+    }
+
+    public Entry get(Resource resource) {
+        return cache.get(resource.getDescription(), key -> load(resource));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private Entry load(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            byte[] bytes = StreamUtils.copyToByteArray(in);
+            if (bytes.length > maxEntrySize) { // contentLength 이후에 파일이 커진 경우
+                throw new IllegalStateException(resource.getDescription() + " is larger than max-entry-size (" + bytes.length + " bytes)");
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            File file = resource.isFile() ? resource.getFile() : null;
+            return new Entry(buffer.asReadOnlyBuffer(), resource.lastModified(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + resource.getDescription(), e);
+        }
+    }
+
+    /**
+     * 캐시된 본문. buffer 는 공유되므로 읽을 때는 항상 duplicate() 해서 쓴다.
+     */
+    public static final class Entry {
+
+        private final ByteBuffer buffer;
+
+        private final long lastModified;
+
+        @Nullable
+        private final File file;
+
+        Entry(ByteBuffer buffer, long lastModified, @Nullable File file) {
+            this.buffer = buffer;
+            this.lastModified = lastModified;
+            this.file = file;
+        }
+
+        public ByteBuffer buffer() {
+            return buffer.duplicate();
+        }
+
+        public int size() {
+            return buffer.capacity();
+        }
+
+        public long lastModified() {
+            return lastModified;
+        }
+
+        /**
+         * 원본이 파일 시스템에 있으면 (jar 안이 아니면) sendfile 에 쓸 수 있는 파일
+         */
+        @Nullable
+        public File file() {
+            return file;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.jonghak.springbootweb.sample;
+
+import com.jonghak.springbootweb.async.BoundedTaskExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * - SampleController 의 비동기 버전 (sample.async.enabled=true 일 때만 등록)
+ *  1. 핸들러는 DeferredResult 만 만들어 돌려주고, 실제 작업은 BoundedTaskExecutor 에서 실행한다.
+ *      ● 톰캣 워커는 바로 반환되고, 결과가 나오면 ASYNC 디스패치로 응답을 쓴다.
+ *  2. /hellojpa 는 id 를 Long 으로 받아서 DB 조회(PersonEntityLoader)까지 executor 에서 한다.
+ *      ● PersonEntity 로 바로 받으면 컨버터가 톰캣 워커에서 조회해버리기 때문.
+ *      ● 없는 id 는 SampleController 와 같이 400
+ *  3. sample.async.timeout 안에 끝나지 않으면 503 (AsyncRequestTimeoutException)
+ *  4. executor 큐가 가득 차면 503 (BoundedTaskExecutor.ExecutorRejectedException)
+ */
+@RestController
+@ConditionalOnProperty(name = "sample.async.enabled", havingValue = "true")
+public class AsyncSampleController {
+
+    private final BoundedTaskExecutor executor;
+
+    private final PersonEntityLoader personEntityLoader;
+
+    private final Duration timeout;
+
+    public AsyncSampleController(BoundedTaskExecutor executor,
+                                 PersonEntityLoader personEntityLoader,
+                                 @Value("${sample.async.timeout:10s}") Duration timeout) {
+        this.executor = executor;
+        this.personEntityLoader = personEntityLoader;
+        this.timeout = timeout;
+    }
+
+    @GetMapping("/hello/{name}")
+    public DeferredResult<String> getHello(@PathVariable("name") Person person) {
+        return async(() -> "hello " + person.getName());
+    }
+
+    @GetMapping("/hello")
+    public DeferredResult<String> getHelloParam(@RequestParam("name") Person person) {
+        return async(() -> "hello " + person.getName());
+    }
+
+    @GetMapping("/hellojpa")
+    public DeferredResult<String> getHelloJpa(@RequestParam("id") Long id) {
+        return async(() -> personEntityLoader.findById(id)
+                .map(person -> "hello " + person.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "No PersonEntity " + id)));
+    }
+
+    @GetMapping("/message")
+    public DeferredResult<String> message(@RequestBody String body) {
+        return async(() -> body);
+    }
+
+    @GetMapping("/jsonMessage")
+    public DeferredResult<Person> jsonMessage(@RequestBody Person person) {
+        return async(() -> person);
+    }
+
+    @GetMapping("/jsonMessages")
+    public DeferredResult<List<Person>> jsonMessages(@RequestBody List<Person> people) {
+        return async(() -> people);
+    }
+
+    private <T> DeferredResult<T> async(Supplier<T> task) {
+        DeferredResult<T> result = new DeferredResult<>(timeout.toMillis());
+        CompletableFuture<T> future = executor.supply(task);
+        future.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.setErrorResult(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                result.setResult(value);
+            }
+        });
+        result.onTimeout(() -> future.cancel(false)); // 아직 큐에 있으면 실행하지 않는다
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+package com.jonghak.springbootweb.sample;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter @ToString
+public class BulkIngestResult {
+
+    private final long rows;
+
+    private final long batches;
+
+    private final long elapsedMillis;
+
+    private final double rowsPerSecond;
+
+    public BulkIngestResult(long rows, long batches, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jonghak.springbootweb.sample;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * - NDJSON 대량 저장
+ *  1. 요청 본문을 통째로 읽지 않고 Jackson MappingIterator 로 Person 한 줄씩 읽는다.
+ *  2. person.bulk.batch-size 개씩 모아서 한 트랜잭션으로 PersonRepository.insertAll -> flush -> clear
+ *      ● flush 시 Hibernate 가 hibernate.jdbc.batch_size 단위로 JDBC batch insert 를 보낸다.
+ *      ● clear 로 영속성 컨텍스트를 비워서 행 수가 늘어도 메모리가 늘지 않는다.
+ *  3. 배치마다 커밋하므로 중간에 잘못된 줄이 있으면 그 전 배치까지는 저장된 채로 400 을 돌려준다.
+ *  4. 새 엔티티만 만들기 때문에 PersonRepository 의 findById 캐시는 건드리지 않는다.
+ *  5. PersonRepository 를 거치므로 샤딩(ShardedPersonRepository)을 켜면 배치마다 shard 를 돌아가며 한 shard 에 저장된다.
+ *      ● shard 0 으로 간 배치만 flush/clear 대상이고, 나머지 shard 로 간 배치는 그 shard 의 트랜잭션으로 커밋한다.
+ */
+@Service
+public class PersonBulkService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PersonRepository personRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader personReader;
+
+    private final int batchSize;
+
+    public PersonBulkService(PersonRepository personRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${person.bulk.batch-size:1000}") int batchSize) {
+        this.personRepository = personRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.personReader = objectMapper.readerFor(Person.class);
+        this.batchSize = batchSize;
+    }
+
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long batches = 0;
+        List<Person> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<Person> people = personReader.readValues(body)) {
+            while (people.hasNextValue()) {
+                batch.add(people.nextValue());
+                if (batch.size() == batchSize) {
+                    rows += persist(batch);
+                    batches++;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid NDJSON after " + rows + " stored rows: " + e.getOriginalMessage(), e);
+        }
+        if (!batch.isEmpty()) {
+            rows += persist(batch);
+            batches++;
+        }
+        return new BulkIngestResult(rows, batches, System.nanoTime() - start);
+    }
+
+    private int persist(List<Person> batch) {
+        int size = batch.size();
+        List<PersonEntity> entities = new ArrayList<>(size);
+        for (Person person : batch) {
+            PersonEntity personEntity = new PersonEntity();
+            personEntity.setName(person.getName());
+            entities.add(personEntity);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            personRepository.insertAll(entities);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        batch.clear();
+        return size;
+    }
+}
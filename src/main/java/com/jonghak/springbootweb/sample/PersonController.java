@@ -0,0 +1,121 @@
+package com.jonghak.springbootweb.sample;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * PersonEntity 대량 처리 API (/people/**)
+ */
+@RestController
+public class PersonController {
+
+    private final PersonBulkService personBulkService;
+
+    private final PersonExportService personExportService;
+
+    private final PersonSearchService personSearchService;
+
+    private final PersonRepository personRepository;
+
+    private final ObjectProvider<PersonWriteBehindQueue> writeBehindQueue;
+
+    public PersonController(PersonBulkService personBulkService,
+                            PersonExportService personExportService,
+                            PersonSearchService personSearchService,
+                            PersonRepository personRepository,
+                            ObjectProvider<PersonWriteBehindQueue> writeBehindQueue) {
+        this.personBulkService = personBulkService;
+        this.personExportService = personExportService;
+        this.personSearchService = personSearchService;
+        this.personRepository = personRepository;
+        this.writeBehindQueue = writeBehindQueue;
+    }
+
+    /**
+     * PersonEntity 저장
+     *  ● person.write-behind.enabled=true 면 PersonWriteBehindQueue 에 넣고 202 (id 는 돌려주지 않음), 아니면 바로 저장하고 201
+     */
+    @PostMapping("/people")
+    public ResponseEntity<PersonEntity> create(@RequestBody Person person) throws InterruptedException {
+        PersonWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (queue != null) {
+            queue.create(person.getName());
+            return ResponseEntity.accepted().build();
+        }
+        PersonEntity personEntity = new PersonEntity();
+        personEntity.setName(person.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(personRepository.save(personEntity));
+    }
+
+    /**
+     * PersonEntity name 수정
+     *  ● write-behind 면 202 (없는 id 는 쓸 때 버린다), 아니면 바로 저장하고 200, 없는 id 는 404
+     */
+    @PutMapping("/people/{id}")
+    public ResponseEntity<PersonEntity> update(@PathVariable("id") Long id, @RequestBody Person person) throws InterruptedException {
+        PersonWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (queue != null) {
+            queue.update(id, person.getName());
+            return ResponseEntity.accepted().build();
+        }
+        if (!personRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown person: " + id);
+        }
+        PersonEntity personEntity = new PersonEntity();
+        personEntity.setId(id);
+        personEntity.setName(person.getName());
+        return ResponseEntity.ok(personRepository.save(personEntity));
+    }
+
+    /**
+     * 한 줄에 Person JSON 하나씩 (application/x-ndjson)
+     *  ● @RequestBody 대신 InputStream 을 받아서 본문을 메모리에 올리지 않고 읽으면서 저장한다.
+     */
+    @PostMapping(value = "/people/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkIngestResult bulkIngest(InputStream body) throws IOException {
+        return personBulkService.ingest(body);
+    }
+
+    /**
+     * 전체 PersonEntity export (format = json | ndjson | xml, 그 외는 400)
+     *  ● StreamingResponseBody 는 MVC 비동기 스레드에서 실행되며, 응답에 바로 쓰기 때문에 본문을 메모리에 모으지 않는다.
+     */
+    @GetMapping("/people/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "json") String format) {
+        PersonExportService.Format exportFormat = PersonExportService.Format.of(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format));
+        StreamingResponseBody body = out -> personExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("people." + exportFormat.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * name prefix 검색 (name, id 순서)
+     *  ● 다음 페이지는 응답의 next 를 after 로 넘긴다. (OFFSET 페이징 없음)
+     */
+    @GetMapping("/people/search")
+    public PersonSearchResult search(@RequestParam("prefix") String prefix,
+                                     @RequestParam(value = "after", required = false) String after,
+                                     @RequestParam(value = "size", defaultValue = "20") int size) {
+        return personSearchService.search(prefix, after, size);
+    }
+}
@@ -3,14 +3,33 @@ package com.jonghak.springbootweb.sample;
 import lombok.Data;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 
+/**
+ * - name 인덱스 (name, id)
+ *  ● /people/search 의 prefix 검색(name like 'abc%')과 (name, id) 순서 keyset 페이징이 인덱스 범위 스캔으로 끝난다.
+ *  ● PersonNameIndexListener : 메모리 인덱스(PersonNameIndex)를 켜둔 경우 저장/수정/삭제를 반영한다.
+ */
 @Entity
+@Table(indexes = @Index(name = "idx_person_entity_name_id", columnList = "name, id"))
+@EntityListeners(PersonNameIndexListener.class)
 @Data
 public class PersonEntity {
 
-    @Id @GeneratedValue
+    /**
+     * pooled 시퀀스 : 시퀀스를 한 번 조회할 때 allocationSize 개의 id를 미리 받아서 쓴다.
+     *  ● 기본 전략(hibernate_sequence, increment 1)은 insert 마다 시퀀스를 조회하기 때문에 대량 저장 시 왕복이 두 배가 된다.
+     *  ● IDENTITY 전략은 insert 후에야 id를 알 수 있어서 Hibernate JDBC batch insert 가 꺼진다.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @SequenceGenerator(name = "person_seq", sequenceName = "person_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -0,0 +1,42 @@
+package com.jonghak.springbootweb.sample;
+
+import com.jonghak.springbootweb.jfr.ArgumentConversionEvent;
+import org.springframework.format.Formatter;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * @RequestParam("id") PersonEntity 변환
+ *  ● String -> PersonEntity 로 등록된 Formatter 가 스프링 데이터의 도메인 클래스 컨버터(Object -> Object)보다 먼저 선택된다.
+ *  ● 실제 조회는 PersonEntityLoader 가 동시 요청을 묶어서 처리
+ *  ● 변환 시간(캐시 조회, H2 조회 포함)은 JFR ArgumentConversionEvent 로 남긴다.
+ */
+@Component
+public class PersonEntityFormatter implements Formatter<PersonEntity> {
+
+    private final PersonEntityLoader personEntityLoader;
+
+    public PersonEntityFormatter(PersonEntityLoader personEntityLoader) {
+        this.personEntityLoader = personEntityLoader;
+    }
+
+    @Override
+    public PersonEntity parse(String text, Locale locale) throws ParseException {
+        ArgumentConversionEvent event = new ArgumentConversionEvent(PersonEntityFormatter.class, PersonEntity.class);
+        event.begin();
+        try {
+            Long id = Long.valueOf(text);
+            return personEntityLoader.findById(id)
+                    .orElseThrow(() -> new ParseException("PersonEntity not found: " + id, 0));
+        } finally {
+            event.commit(text);
+        }
+    }
+
+    @Override
+    public String print(PersonEntity object, Locale locale) {
+        return String.valueOf(object.getId());
+    }
+}
@@ -0,0 +1,53 @@
+package com.jonghak.springbootweb.sample;
+
+import com.jonghak.springbootweb.cache.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * id -> PersonEntity 조회
+ *  1. 같은 id 로 동시에 들어온 조회는 SingleFlight 로 묶어서 PersonRepository.findById 를 한 번만 호출한다.
+ *  2. findById 는 캐시(PersonRepository.CACHE_NAME)를 먼저 보기 때문에 H2 까지 가는 것은 캐시 miss 일 때 뿐이다.
+ *  3. person.loader.timeout : 다른 요청의 로드를 기다리는 최대 시간 (기본 3초)
+ */
+@Component
+public class PersonEntityLoader {
+
+    private final PersonRepository personRepository;
+
+    private final Duration timeout;
+
+    private final SingleFlight<Long, Optional<PersonEntity>> singleFlight = new SingleFlight<>();
+
+    public PersonEntityLoader(PersonRepository personRepository,
+                              @Value("${person.loader.timeout:3s}") Duration timeout) {
+        this.personRepository = personRepository;
+        this.timeout = timeout;
+    }
+
+    public Optional<PersonEntity> findById(Long id) {
+        try {
+            return singleFlight.load(id, personRepository::findById, timeout);
+        } catch (TimeoutException e) {
+            throw new PersonLoadTimeoutException(id, timeout);
+        }
+    }
+
+    /**
+     * 다른 요청의 로드를 기다리다 timeout 난 경우 503
+     *  ● 컨버터 예외로 감싸져도 ResponseStatusExceptionResolver 가 cause 를 따라가서 @ResponseStatus 를 찾는다.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class PersonLoadTimeoutException extends RuntimeException {
+
+        public PersonLoadTimeoutException(Long id, Duration timeout) {
+            super("Timed out after " + timeout.toMillis() + "ms waiting for PersonEntity " + id);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.jonghak.springbootweb.sample;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * - PersonEntity 전체 export
+ *  1. findAll() 처럼 전체를 List 로 올리지 않고 keyset 페이지(id > lastId) 단위로 읽는다.
+ *      ● 페이지마다 읽기 전용 트랜잭션을 열고, 읽은 뒤 영속성 컨텍스트를 비운다. (clear)
+ *      ● 출력 스트림에 쓰는 동안에는 트랜잭션(커넥션)을 잡고 있지 않는다. 느린 클라이언트가 커넥션 풀을 잡아두지 않도록.
+ *  2. 행마다 바로 출력 스트림에 쓰고 페이지마다 flush 한다.
+ *  3. 메모리에 있는 것은 항상 한 페이지(person.export.page-size) 뿐이라 행 수와 관계없이 힙 사용량이 일정하다.
+ */
+@Service
+public class PersonExportService {
+
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON, "json"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        XML(MediaType.APPLICATION_XML, "xml");
+
+        private final MediaType mediaType;
+
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return Optional.of(format);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PersonRepository personRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectMapper objectMapper;
+
+    private final int pageSize;
+
+    public PersonExportService(PersonRepository personRepository,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${person.export.page-size:1000}") int pageSize) {
+        this.personRepository = personRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    public long export(Format format, OutputStream out) throws IOException {
+        RowWriter writer = createWriter(format, out);
+        Pageable pageable = PageRequest.ofSize(pageSize);
+        long rows = 0;
+        long lastId = Long.MIN_VALUE;
+        writer.start();
+        while (true) {
+            long after = lastId;
+            List<PersonEntity> page = readOnlyTransaction.execute(status -> {
+                List<PersonEntity> people = personRepository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+                entityManager.clear();
+                return people;
+            });
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (PersonEntity person : page) {
+                writer.write(person);
+            }
+            rows += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            writer.flush();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        writer.end();
+        return rows;
+    }
+
+    private RowWriter createWriter(Format format, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON:
+                return new JsonRowWriter(objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8), false);
+            case XML:
+                return new XmlRowWriter(out);
+            default:
+                return new JsonRowWriter(objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8), true);
+        }
+    }
+
+    private interface RowWriter {
+
+        void start() throws IOException;
+
+        void write(PersonEntity person) throws IOException;
+
+        void flush() throws IOException;
+
+        void end() throws IOException;
+    }
+
+    /**
+     * JSON 배열 또는 NDJSON (한 줄에 하나)
+     */
+    private static class JsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private final boolean array;
+
+        JsonRowWriter(JsonGenerator generator, boolean array) {
+            this.generator = generator;
+            this.array = array;
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!array) {
+                generator.setRootValueSeparator(null);
+            }
+        }
+
+        @Override
+        public void start() throws IOException {
+            if (array) {
+                generator.writeStartArray();
+            }
+        }
+
+        @Override
+        public void write(PersonEntity person) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", person.getId());
+            generator.writeStringField("name", person.getName());
+            generator.writeEndObject();
+            if (!array) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void end() throws IOException {
+            if (array) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        }
+    }
+
+    /**
+     * PersonXmlHttpMessageConverter 의 List 형식과 같은 <people><person>..</person></people>
+     */
+    private static class XmlRowWriter implements RowWriter {
+
+        private final XMLStreamWriter writer;
+
+        XmlRowWriter(OutputStream out) throws IOException {
+            try {
+                this.writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void start() throws IOException {
+            try {
+                writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+                writer.writeStartElement("people");
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void write(PersonEntity person) throws IOException {
+            try {
+                writer.writeStartElement("person");
+                writer.writeStartElement("id");
+                writer.writeCharacters(String.valueOf(person.getId()));
+                writer.writeEndElement();
+                if (person.getName() != null) {
+                    writer.writeStartElement("name");
+                    writer.writeCharacters(person.getName());
+                    writer.writeEndElement();
+                }
+                writer.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                writer.flush();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void end() throws IOException {
+            try {
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.flush();
+                writer.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.jonghak.springbootweb.sample;
 
+import com.jonghak.springbootweb.jfr.ArgumentConversionEvent;
 import org.springframework.format.Formatter;
 import org.springframework.stereotype.Component;
 
@@ -11,8 +12,11 @@ public class PersonFormatter implements Formatter<Person> {
 
     @Override
     public Person parse(String text, Locale locale) throws ParseException {
+        ArgumentConversionEvent event = new ArgumentConversionEvent(PersonFormatter.class, Person.class);
+        event.begin();
         Person person = new Person();
         person.setName(text);
+        event.commit(text);
         return person;
     }
 
@@ -0,0 +1,17 @@
+package com.jonghak.springbootweb.sample;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * - 새 PersonEntity 일괄 저장 (PersonRepository 프래그먼트)
+ *  1. id 가 없는 새 엔티티만 persist 한다. (merge 여부를 보지 않음, pooled 시퀀스 + JDBC batch insert)
+ *  2. 캐시에 있을 수 없는 엔티티들이라 saveAll 과 달리 findById 캐시를 비우지 않는다.
+ *  3. PersonBulkService, PersonWriteBehindQueue 가 쓴다. 샤딩을 켜면 ShardedPersonRepository 가 호출마다 한 shard 에 저장한다.
+ */
+public interface PersonInsertRepository {
+
+    @Transactional
+    <S extends PersonEntity> List<S> insertAll(List<S> entities);
+}
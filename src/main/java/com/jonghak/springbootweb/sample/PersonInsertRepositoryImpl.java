@@ -0,0 +1,28 @@
+package com.jonghak.springbootweb.sample;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * - PersonInsertRepository 구현
+ *  ● 기본 리포지토리는 스프링 데이터가 Impl 접미사로 찾아서 붙이고, shard 리포지토리는 ShardedPersonRepository 가 shard 의 EntityManager 로 만들어 붙인다.
+ */
+public class PersonInsertRepositoryImpl implements PersonInsertRepository {
+
+    private final EntityManager entityManager;
+
+    public PersonInsertRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> insertAll(List<S> entities) {
+        for (S entity : entities) {
+            if (entity.getId() != null) {
+                throw new IllegalArgumentException("insertAll accepts new entities only (id " + entity.getId() + ")");
+            }
+            entityManager.persist(entity);
+        }
+        return entities;
+    }
+}
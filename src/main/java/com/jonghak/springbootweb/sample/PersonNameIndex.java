@@ -0,0 +1,115 @@
+package com.jonghak.springbootweb.sample;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * - PersonEntity.name 메모리 인덱스 (person.search.in-memory-index=true 일 때 PersonSearchService 가 사용)
+ *  1. (name, id) 순서로 정렬된 ConcurrentSkipListSet. prefix 검색은 시작 위치로 바로 가서 prefix 가 끝날 때까지만 읽는다. (O(log n + size))
+ *  2. 변경 반영은 PersonNameIndexListener(JPA 엔티티 리스너)가 커밋 후에 한다.
+ *      ● id -> name 맵으로 이전 이름을 찾아서 지운 뒤 새 이름을 넣는다. (id 별로 names.compute 안에서)
+ *      ● JPQL 일괄 삭제(deleteAllInBatch 등)는 엔티티 리스너를 거치지 않으므로 rebuild 가 필요하다.
+ */
+@Component
+@ConditionalOnProperty(name = "person.search.in-memory-index", havingValue = "true")
+public class PersonNameIndex {
+
+    static final Comparator<Key> ORDER = Comparator.comparing(Key::getName).thenComparingLong(Key::getId);
+
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>(ORDER);
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * names.compute 안에서 keys 를 고치므로 같은 id 의 변경은 순서대로 반영된다. (동시에 바뀌어도 이전 이름의 key 가 남지 않음)
+     */
+    public void put(Long id, String name) {
+        names.compute(id, (key, previous) -> {
+            if (previous != null && !previous.equals(name)) {
+                keys.remove(new Key(previous, id));
+            }
+            if (name != null) {
+                keys.add(new Key(name, id));
+            }
+            return name;
+        });
+    }
+
+    public void remove(Long id) {
+        names.computeIfPresent(id, (key, previous) -> {
+            keys.remove(new Key(previous, id));
+            return null;
+        });
+    }
+
+    public void clear() {
+        keys.clear();
+        names.clear();
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * prefix 로 시작하는 이름을 (name, id) 순서로 limit 개. after 가 있으면 그 다음부터.
+     */
+    public List<Key> search(String prefix, Key after, int limit) {
+        Key from = after != null && after.getName().startsWith(prefix) ? after : new Key(prefix, Long.MIN_VALUE);
+        boolean inclusive = from != after;
+        List<Key> result = new ArrayList<>(limit);
+        for (Key key : keys.tailSet(from, inclusive)) {
+            if (result.size() == limit || !key.getName().startsWith(prefix)) {
+                break;
+            }
+            result.add(key);
+        }
+        return result;
+    }
+
+    public static final class Key {
+
+        private final String name;
+
+        private final long id;
+
+        public Key(String name, long id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return id == key.id && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, id);
+        }
+    }
+}
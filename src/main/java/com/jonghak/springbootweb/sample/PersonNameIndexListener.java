@@ -0,0 +1,57 @@
+package com.jonghak.springbootweb.sample;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * - PersonEntity 변경을 PersonNameIndex 에 반영하는 JPA 엔티티 리스너
+ *  1. 스프링 부트는 Hibernate 에 SpringBeanContainer 를 넘기므로 리스너도 생성자 주입을 받는다.
+ *  2. 메모리 인덱스가 꺼져 있으면 (빈이 없으면) 아무것도 하지 않는다.
+ *  3. 트랜잭션 안이면 커밋된 뒤에 반영한다. 롤백된 변경이 검색 결과에 보이지 않도록.
+ */
+public class PersonNameIndexListener {
+
+    private final ObjectProvider<PersonNameIndex> personNameIndex;
+
+    public PersonNameIndexListener(ObjectProvider<PersonNameIndex> personNameIndex) {
+        this.personNameIndex = personNameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(PersonEntity personEntity) {
+        PersonNameIndex index = personNameIndex.getIfAvailable();
+        if (index != null) {
+            Long id = personEntity.getId();
+            String name = personEntity.getName();
+            afterCommit(() -> index.put(id, name));
+        }
+    }
+
+    @PostRemove
+    public void removed(PersonEntity personEntity) {
+        PersonNameIndex index = personNameIndex.getIfAvailable();
+        if (index != null) {
+            Long id = personEntity.getId();
+            afterCommit(() -> index.remove(id));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,6 +1,100 @@
 package com.jonghak.springbootweb.sample;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PersonRepository extends JpaRepository<PersonEntity, Long> {
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * - PersonEntity 조회 캐시
+ *  1. /hellojpa 의 도메인 클래스 컨버터는 findById 를 호출하므로 findById 결과를 캐시에 담아 반복되는 id는 H2까지 가지 않는다.
+ *  2. 캐시 크기/만료 시간은 application.properties 의 spring.cache.caffeine.spec 으로 설정
+ *  3. 저장/삭제 메소드는 해당 id (또는 캐시 전체)를 무효화한다.
+ *      ● 일괄 저장/삭제는 어떤 id가 바뀌었는지 알 수 없으므로 allEntries 로 전체 무효화
+ *      ● 새 엔티티만 저장하는 insertAll(PersonInsertRepository)은 무효화하지 않는다.
+ */
+public interface PersonRepository extends JpaRepository<PersonEntity, Long>, PersonInsertRepository {
+
+    String CACHE_NAME = "personEntity";
+
+    /**
+     * keyset 페이지 조회 : id > lastId 순서대로 pageable 크기만큼 (OFFSET 없이 PK 인덱스로 바로 찾아감)
+     *  ● 반환 타입이 List 라서 count 쿼리는 실행하지 않는다.
+     */
+    List<PersonEntity> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
+    /**
+     * name prefix 검색 첫 페이지 : (name, id) 순서
+     *  ● StartingWith 는 prefix 안의 %, _ 를 이스케이프해준다.
+     */
+    List<PersonEntity> findByNameStartingWithOrderByNameAscIdAsc(String prefix, Pageable pageable);
+
+    /**
+     * name prefix 검색 다음 페이지 : 직전 페이지 마지막 (name, id) 다음부터 (OFFSET 없이 인덱스에서 바로 이어서 읽음)
+     */
+    @Query("select p from PersonEntity p"
+            + " where p.name like :#{escape(#prefix)}% escape :#{escapeCharacter()}"
+            + " and (p.name > :afterName or (p.name = :afterName and p.id > :afterId))"
+            + " order by p.name asc, p.id asc")
+    List<PersonEntity> findByNameStartingWithAfter(@Param("prefix") String prefix,
+                                                   @Param("afterName") String afterName,
+                                                   @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
+    @Override
+    @Cacheable(cacheNames = CACHE_NAME, unless = "#result == null") // 없는 id는 캐시하지 않음 (이후 저장될 수 있으므로)
+    Optional<PersonEntity> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#p0.id", condition = "#p0.id != null")
+    <S extends PersonEntity> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#p0.id", condition = "#p0.id != null")
+    <S extends PersonEntity> S saveAndFlush(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    <S extends PersonEntity> List<S> saveAll(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    <S extends PersonEntity> List<S> saveAllAndFlush(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#p0.id", condition = "#p0.id != null")
+    void delete(PersonEntity entity);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAll(Iterable<? extends PersonEntity> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAll();
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAllInBatch(Iterable<PersonEntity> entities);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    @Override
+    @CacheEvict(cacheNames = CACHE_NAME, allEntries = true)
+    void deleteAllInBatch();
 }
@@ -0,0 +1,23 @@
+package com.jonghak.springbootweb.sample;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * /people/search 응답
+ *  ● next : 다음 페이지 요청의 after 로 그대로 넘기는 커서 (마지막 페이지면 null)
+ */
+@Getter @ToString
+public class PersonSearchResult {
+
+    private final List<Person> items;
+
+    private final String next;
+
+    public PersonSearchResult(List<Person> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+}
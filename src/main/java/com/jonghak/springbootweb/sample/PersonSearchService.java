@@ -0,0 +1,113 @@
+package com.jonghak.springbootweb.sample;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * - PersonEntity.name prefix 검색 + keyset 페이징
+ *  1. (name, id) 순서로 size 개씩. 다음 페이지는 직전 마지막 (name, id) 를 커서로 넘겨서 그 뒤부터 읽는다.
+ *      ● OFFSET 은 앞 페이지를 모두 읽고 버리기 때문에 뒤로 갈수록 느려지지만, keyset 은 몇 번째 페이지든 인덱스에서 바로 시작한다.
+ *  2. person.search.in-memory-index=true 면 H2 대신 PersonNameIndex 에서 찾는다.
+ *      ● 애플리케이션이 뜰 때 전체 name 을 id 순서 keyset 페이지로 읽어서 채운다.
+ *  3. 커서는 "id:name" 을 base64url 로 인코딩한 문자열 (형식이 틀리면 400)
+ */
+@Service
+public class PersonSearchService {
+
+    static final int MAX_SIZE = 100;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final PersonRepository personRepository;
+
+    private final ObjectProvider<PersonNameIndex> personNameIndex;
+
+    public PersonSearchService(PersonRepository personRepository, ObjectProvider<PersonNameIndex> personNameIndex) {
+        this.personRepository = personRepository;
+        this.personNameIndex = personNameIndex;
+    }
+
+    @Transactional(readOnly = true)
+    public PersonSearchResult search(String prefix, String after, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_SIZE);
+        }
+        PersonNameIndex.Key cursor = after == null || after.isEmpty() ? null : decodeCursor(after);
+        List<Person> items = new ArrayList<>(size + 1);
+
+        PersonNameIndex index = personNameIndex.getIfAvailable();
+        if (index != null) {
+            for (PersonNameIndex.Key key : index.search(prefix, cursor, size + 1)) {
+                items.add(toPerson(key.getId(), key.getName()));
+            }
+        } else {
+            PageRequest limit = PageRequest.ofSize(size + 1); // 다음 페이지가 있는지 보려고 하나 더 읽음
+            List<PersonEntity> people = cursor == null
+                    ? personRepository.findByNameStartingWithOrderByNameAscIdAsc(prefix, limit)
+                    : personRepository.findByNameStartingWithAfter(prefix, cursor.getName(), cursor.getId(), limit);
+            for (PersonEntity person : people) {
+                items.add(toPerson(person.getId(), person.getName()));
+            }
+        }
+
+        String next = null;
+        if (items.size() > size) {
+            items.remove(size);
+            Person last = items.get(size - 1);
+            next = encodeCursor(last.getId(), last.getName());
+        }
+        return new PersonSearchResult(items, next);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        PersonNameIndex index = personNameIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        index.clear();
+        PageRequest page = PageRequest.ofSize(LOAD_PAGE_SIZE);
+        long lastId = Long.MIN_VALUE;
+        List<PersonEntity> people;
+        do {
+            people = personRepository.findByIdGreaterThanOrderByIdAsc(lastId, page);
+            for (PersonEntity person : people) {
+                index.put(person.getId(), person.getName());
+                lastId = person.getId();
+            }
+        } while (people.size() == LOAD_PAGE_SIZE);
+    }
+
+    private static Person toPerson(Long id, String name) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        return person;
+    }
+
+    static String encodeCursor(Long id, String name) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PersonNameIndex.Key decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = value.indexOf(':');
+            return new PersonNameIndex.Key(value.substring(colon + 1), Long.parseLong(value.substring(0, colon)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.jonghak.springbootweb.sample;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * - PersonEntity 샤딩 설정 (person.sharding.*)
+ *  1. 기본 DataSource (spring.datasource.*) 가 shard 0, data-sources 에 나열한 순서대로 shard 1, 2, ...
+ *  2. range-size : shard 하나가 가지는 id 범위 크기 (shard i 는 [i * range-size, (i + 1) * range-size))
+ *  3. shard 마다 커넥션 풀(HikariCP)을 따로 가진다. (maximum-pool-size)
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "person.sharding")
+public class PersonShardingProperties {
+
+    private boolean enabled = false;
+
+    private long rangeSize = 1_000_000_000_000L;
+
+    private List<DataSource> dataSources = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class DataSource {
+
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+
+        private int maximumPoolSize = 10;
+    }
+}
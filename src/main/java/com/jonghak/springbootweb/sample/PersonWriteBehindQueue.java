@@ -0,0 +1,387 @@
+package com.jonghak.springbootweb.sample;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * - PersonEntity write-behind (person.write-behind.enabled=true)
+ *  1. 저장 요청은 메모리 큐에 넣고 바로 돌아간다. 백그라운드 스레드 하나가 batch-size 개가 모이거나 flush-interval 이 지나면 쓴다.
+ *      ● 새 엔티티는 insertAll 한 트랜잭션 (pooled 시퀀스 + JDBC batch insert, 샤딩을 켜면 배치 전체가 한 shard 로 감)
+ *      ● 수정은 다른 트랜잭션에서 id 로 한 번에 읽어서 이름만 바꾼다. (dirty checking -> batch update)
+ *      ● 없는 id 의 수정은 버린다.
+ *  2. 같은 id 의 수정이 큐에 아직 남아 있으면 새 값으로 덮어쓴다. (coalesce, 큐 자리를 더 쓰지 않음)
+ *  3. 큐는 capacity 개로 제한한다. 가득 차면 offer-timeout 만큼 기다리고, 그래도 자리가 없으면 WriteBehindRejectedException(503)
+ *  4. 종료 시(SmartLifecycle.stop) 더 받지 않고 큐에 남은 것을 모두 쓴 뒤 멈춘다.
+ *      ● phase 0 : 웹 서버(더 높은 phase) 가 요청을 받지 않게 된 뒤에 멈추고, DataSource 보다는 먼저 멈춘다.
+ *      ● shutdown-timeout 안에 다 쓰지 못하면 남은 개수를 로그로 남기고 멈춘다. (flusher 는 데몬 스레드라 종료를 막지 않는다)
+ *  5. 쓰기 전까지는 조회(/hellojpa 등)에 반영되지 않는다. 쓴 뒤에 수정한 id 의 findById 캐시를 지운다.
+ *  6. 쓰기에 실패한 쪽(새 엔티티 또는 수정)만 큐에 다시 넣고 flush-interval 뒤에 다시 쓴다. (retriedCount)
+ *      ● 새 엔티티는 커밋되지 않은 것이 확실할 때만 다시 넣는다. (수정이 실패해도 이미 저장한 새 엔티티를 다시 저장하지 않음)
+ *      ● 수정은 같은 값을 다시 쓰는 것이라 샤딩으로 일부 shard 에 이미 커밋됐어도 다시 써도 된다.
+ *      ● 같은 id 의 더 새로운 수정이 그 사이 들어왔으면 그쪽을 남긴다. 다시 넣을 때는 capacity 를 넘을 수 있다.
+ *      ● max-attempts 번 실패한 쓰기만 로그를 남기고 버린다. (failedCount)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "person.write-behind.enabled", havingValue = "true")
+public class PersonWriteBehindQueue implements SmartLifecycle {
+
+    private final PersonRepository personRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long offerTimeoutNanos;
+
+    private final int maxAttempts;
+
+    private final Duration shutdownTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final Condition flushRequested = lock.newCondition();
+
+    /**
+     * key : 수정은 id, 새 엔티티는 요청마다 새 Object (덮어쓰지 않음)
+     */
+    private final LinkedHashMap<Object, PendingWrite> pending = new LinkedHashMap<>();
+
+    private boolean accepting = true;
+
+    private Thread flusher;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder retried = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    public PersonWriteBehindQueue(PersonRepository personRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  CacheManager cacheManager,
+                                  @Value("${person.write-behind.capacity:10000}") int capacity,
+                                  @Value("${person.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${person.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                  @Value("${person.write-behind.offer-timeout:100ms}") Duration offerTimeout,
+                                  @Value("${person.write-behind.max-attempts:3}") int maxAttempts,
+                                  @Value("${person.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.personRepository = personRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public void create(String name) throws InterruptedException {
+        submit(new Object(), new PendingWrite(null, name, 0));
+    }
+
+    public void update(Long id, String name) throws InterruptedException {
+        submit(id, new PendingWrite(id, name, 0));
+    }
+
+    private void submit(Object key, PendingWrite write) throws InterruptedException {
+        lock.lock();
+        try {
+            if (!accepting) {
+                rejected.increment();
+                throw new WriteBehindRejectedException("Write-behind queue is shutting down");
+            }
+            submitted.increment();
+            if (pending.replace(key, write) != null) {
+                coalesced.increment();
+                return;
+            }
+            long nanos = offerTimeoutNanos;
+            while (pending.size() >= capacity) {
+                if (!accepting) { // 기다리는 동안 stop() 이 불렸으면 자리가 나도 쓰이지 않으므로 받지 않는다
+                    rejected.increment();
+                    throw new WriteBehindRejectedException("Write-behind queue is shutting down");
+                }
+                if (nanos <= 0) {
+                    rejected.increment();
+                    throw new WriteBehindRejectedException("Write-behind queue is full (" + capacity + ")");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            pending.put(key, write);
+            if (pending.size() >= batchSize) {
+                flushRequested.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        boolean backoff = false;
+        while (true) {
+            List<PendingWrite> batch;
+            lock.lock();
+            try {
+                long nanos = flushIntervalNanos;
+                while ((backoff || accepting && pending.size() < batchSize) && nanos > 0) { // 실패한 뒤에는 flush-interval 만큼 쉰다
+                    nanos = flushRequested.awaitNanos(nanos);
+                }
+                if (!accepting && pending.isEmpty()) {
+                    return;
+                }
+                batch = drain();
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            backoff = !batch.isEmpty() && !write(batch);
+        }
+    }
+
+    private List<PendingWrite> drain() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<PendingWrite> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    /**
+     * 새 엔티티와 수정을 각자 한 트랜잭션으로 쓴다. 한쪽이 실패해도 다른 쪽은 그대로 커밋된다.
+     */
+    private boolean write(List<PendingWrite> batch) {
+        List<PendingWrite> createWrites = new ArrayList<>();
+        List<PendingWrite> updateWrites = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            (write.id == null ? createWrites : updateWrites).add(write);
+        }
+        boolean created = createWrites.isEmpty() || writeCreates(createWrites);
+        boolean updated = updateWrites.isEmpty() || writeUpdates(updateWrites);
+        if (created && updated) {
+            batches.increment();
+        }
+        return created && updated;
+    }
+
+    private boolean writeCreates(List<PendingWrite> writes) {
+        List<PersonEntity> creates = new ArrayList<>(writes.size());
+        for (PendingWrite write : writes) {
+            PersonEntity personEntity = new PersonEntity();
+            personEntity.setName(write.name);
+            creates.add(personEntity);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> personRepository.insertAll(creates));
+            written.add(writes.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Write-behind batch of {} PersonEntity creates failed", writes.size(), e);
+            requeue(writes);
+            return false;
+        }
+    }
+
+    private boolean writeUpdates(List<PendingWrite> writes) {
+        Map<Long, String> updates = new LinkedHashMap<>();
+        for (PendingWrite write : writes) {
+            updates.put(write.id, write.name);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PersonEntity personEntity : personRepository.findAllById(updates.keySet())) {
+                    personEntity.setName(updates.get(personEntity.getId()));
+                    personRepository.save(personEntity); // ShardedPersonRepository 면 shard 0 밖의 엔티티는 detached 라서 다시 저장
+                }
+            });
+            written.add(writes.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Write-behind batch of {} PersonEntity updates failed", writes.size(), e);
+            requeue(writes);
+            return false;
+        } finally {
+            Cache cache = cacheManager.getCache(PersonRepository.CACHE_NAME);
+            if (cache != null) {
+                updates.keySet().forEach(cache::evict);
+            }
+        }
+    }
+
+    /**
+     * 실패한 쓰기를 다시 큐에 넣는다. max-attempts 번 실패한 것은 버린다.
+     */
+    private void requeue(List<PendingWrite> batch) {
+        int dropped = 0;
+        lock.lock();
+        try {
+            for (PendingWrite write : batch) {
+                if (write.attempts + 1 >= maxAttempts) {
+                    dropped++;
+                } else if (write.id == null) {
+                    pending.put(new Object(), write.retry());
+                } else {
+                    pending.putIfAbsent(write.id, write.retry()); // 그 사이 들어온 새 수정이 있으면 그쪽이 최신
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        retried.add(batch.size() - dropped);
+        if (dropped > 0) {
+            failed.add(dropped);
+            log.error("Dropped {} PersonEntity writes after {} failed attempts", dropped, maxAttempts);
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            if (flusher == null) {
+                flusher = new Thread(this::run, "person-write-behind");
+                flusher.setDaemon(true);
+                flusher.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 더 받지 않고, 큐에 남은 것을 모두 쓸 때까지 (shutdown-timeout 까지) 기다린다.
+     */
+    @Override
+    public void stop() {
+        Thread thread;
+        lock.lock();
+        try {
+            accepting = false;
+            flushRequested.signal();
+            notFull.signalAll();
+            thread = flusher;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join(shutdownTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn("Write-behind flusher did not finish within {}; {} PersonEntity writes still queued",
+                        shutdownTimeout, queueDepth());
+            }
+        }
+    }
+
+    private int queueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return flusher != null && flusher.isAlive();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queueDepth());
+        stats.put("capacity", capacity);
+        stats.put("submittedCount", submitted.sum());
+        stats.put("coalescedCount", coalesced.sum());
+        stats.put("rejectedCount", rejected.sum());
+        stats.put("writtenCount", written.sum());
+        stats.put("batchCount", batches.sum());
+        stats.put("retriedCount", retried.sum());
+        stats.put("failedCount", failed.sum());
+        return stats;
+    }
+
+    private static class PendingWrite {
+
+        private final Long id;
+
+        private final String name;
+
+        private final int attempts;
+
+        PendingWrite(Long id, String name, int attempts) {
+            this.id = id;
+            this.name = name;
+            this.attempts = attempts;
+        }
+
+        PendingWrite retry() {
+            return new PendingWrite(id, name, attempts + 1);
+        }
+    }
+
+    /**
+     * 큐가 가득 찼거나 종료 중이라 받지 못한 경우 503
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class WriteBehindRejectedException extends RuntimeException {
+
+        public WriteBehindRejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.jonghak.springbootweb.sample;
 
+import com.jonghak.springbootweb.cache.CacheableResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
+@ConditionalOnProperty(name = "sample.async.enabled", havingValue = "false", matchIfMissing = true) // true 면 AsyncSampleController
 public class SampleController {
 
+    @CacheableResponse
     @GetMapping("/hello/{name}")
     public String getHello(@PathVariable("name") Person person) {
         return "hello " + person.getName();
     }
 
+    @CacheableResponse
     @GetMapping("/hello")
     public String getHelloParam(@RequestParam("name") Person person) {
         return "hello " + person.getName();
@@ -29,4 +36,9 @@ public class SampleController {
     public Person jsonMessage(@RequestBody Person person) {
         return person;
     }
+
+    @GetMapping("/jsonMessages")
+    public List<Person> jsonMessages(@RequestBody List<Person> people) {
+        return people;
+    }
 }
@@ -0,0 +1,793 @@
+package com.jonghak.springbootweb.sample;
+
+import com.jonghak.springbootweb.jfr.RepositoryCallInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.data.repository.query.ExtensionAwareQueryMethodEvaluationContextProvider;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.SequenceGenerator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * - id 범위로 나눈 PersonRepository (person.sharding.enabled=true)
+ *  1. @Primary 라서 PersonRepository 를 주입받는 곳은 모두 이 라우터를 쓴다. shard 0 은 기존 스프링 데이터 리포지토리(기본 DataSource)
+ *  2. shard 1.. 은 각자 DataSource(커넥션 풀), EntityManagerFactory, JpaTransactionManager 를 가진다.
+ *      ● 빈으로 등록하지 않는다. (DataSource/EntityManagerFactory 빈이 더 있으면 스프링 부트 기본 설정이 빠진다)
+ *  3. 라우팅 : id 범위 (shard i 는 [i * range-size, (i + 1) * range-size))
+ *      ● shard 마다 person_seq 를 자기 범위 시작값으로 맞춰 두므로, 새 엔티티는 어느 shard 에 저장하든 id 로 다시 찾아간다.
+ *      ● 마지막 shard 를 뺀 나머지는 person_seq 의 MAXVALUE 가 범위 끝이라, 범위를 다 쓰면 그 shard 에 저장이 실패한다.
+ *      ● 새 엔티티는 호출마다 shard 를 돌아가며 저장한다. (쓰기 분산) saveAll, insertAll 한 번의 새 엔티티는 모두 한 shard 의 한 트랜잭션으로 저장한다.
+ *      ● 병렬성은 동시에 들어오는 호출들이 서로 다른 shard 로 가는 데서 나온다. 배치를 쪼개서 작은 트랜잭션 여러 개로 만들지 않는다.
+ *      ● hash 라우팅은 id 를 저장 전에 정해야 해서 쓰지 않는다. (시퀀스가 shard 안에서 id 를 만든다)
+ *  4. scatter-gather : findAll, count, 검색은 모든 shard 에 동시에 보내고 합친다. (shard 0 은 호출 스레드에서, 나머지는 shard 전용 스레드에서)
+ *      ● 정렬/페이지는 shard 마다 (offset + size) 개씩 읽어서 메모리에서 합친다.
+ *      ● id keyset 페이지(findByIdGreaterThanOrderByIdAsc)는 범위가 정렬되어 있으므로 lastId 의 shard 부터 차례로 읽는다.
+ *  5. 한계
+ *      ● 트랜잭션은 shard 마다 따로다. 호출한 쪽 트랜잭션에 참여하는 것은 shard 0 뿐이다.
+ *      ● PersonBulkService, PersonWriteBehindQueue 는 배치를 insertAll 로 저장하므로 배치 하나는 모두 저장되거나 모두 저장되지 않는다.
+ *        shard 0 밖으로 간 배치는 호출한 쪽 트랜잭션과 따로 커밋된다.
+ *      ● id 가 있는 엔티티가 섞인 saveAll 은 그 엔티티들의 shard 로 나뉘어 따로 커밋된다.
+ *      ● getReferenceById 등은 프록시 대신 조회한 엔티티를 돌려준다.
+ *      ● findBy(Example, Function) 의 stream() 은 합쳐서 정렬해야 하므로 모두 읽은 뒤 돌려준다.
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(name = "person.sharding.enabled", havingValue = "true")
+public class ShardedPersonRepository implements PersonRepository, DisposableBean {
+
+    private static final int ALLOCATION_SIZE = allocationSize();
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    private final long rangeSize;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    public ShardedPersonRepository(PersonShardingProperties properties,
+                                   @Qualifier("personRepository") PersonRepository primary,
+                                   javax.sql.DataSource dataSource,
+                                   PlatformTransactionManager transactionManager,
+                                   JpaProperties jpaProperties,
+                                   HibernateProperties hibernateProperties,
+                                   ConfigurableListableBeanFactory beanFactory) {
+        this.rangeSize = properties.getRangeSize();
+        if (rangeSize <= ALLOCATION_SIZE) {
+            throw new IllegalArgumentException("person.sharding.range-size must be greater than " + ALLOCATION_SIZE);
+        }
+        List<PersonShardingProperties.DataSource> dataSources = properties.getDataSources();
+        this.shards.add(new Shard(0, primary, transactionManager, null, null));
+        try {
+            if (!dataSources.isEmpty()) {
+                limitSequence(dataSource, 0);
+            }
+            for (int i = 0; i < dataSources.size(); i++) {
+                shards.add(createShard(i + 1, dataSources.get(i), i == dataSources.size() - 1,
+                        jpaProperties, hibernateProperties, beanFactory));
+            }
+        } catch (RuntimeException e) {
+            destroy();
+            throw e;
+        }
+        this.executor = shards.size() > 1
+                ? Executors.newFixedThreadPool(shards.size() - 1, daemonThreadFactory())
+                : null;
+    }
+
+    private Shard createShard(int index, PersonShardingProperties.DataSource properties, boolean last,
+                              JpaProperties jpaProperties, HibernateProperties hibernateProperties,
+                              ConfigurableListableBeanFactory beanFactory) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("person-shard-" + index);
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+
+        Map<String, Object> jpaPropertyMap = new LinkedHashMap<>(hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(), new HibernateSettings().ddlAuto(() -> "update")));
+        jpaPropertyMap.put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory)); // PersonNameIndexListener 생성자 주입
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setPersistenceUnitName("person-shard-" + index);
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(PersonEntity.class.getPackage().getName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(jpaPropertyMap);
+        try {
+            factoryBean.afterPropertiesSet();
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            restartSequence(dataSource, index * rangeSize);
+            if (!last) {
+                limitSequence(dataSource, index);
+            }
+        } catch (RuntimeException e) {
+            entityManagerFactory.close();
+            dataSource.close();
+            throw e;
+        }
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        repositoryFactory.setEvaluationContextProvider(new ExtensionAwareQueryMethodEvaluationContextProvider(beanFactory));
+        repositoryFactory.addRepositoryProxyPostProcessor(RepositoryCallInterceptor.postProcessor());
+        return new Shard(index, repositoryFactory.getRepository(PersonRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new PersonInsertRepositoryImpl(entityManager))),
+                new JpaTransactionManager(entityManagerFactory), entityManagerFactory, dataSource);
+    }
+
+    /**
+     * 비어 있는 shard 의 person_seq 를 자기 범위 시작값으로 맞춘다.
+     *  ● pooled optimizer 는 시퀀스 값을 블록의 끝으로 보므로 (값 - allocationSize + 1 부터 사용) allocationSize 만큼 더해서 시작한다.
+     */
+    private static void restartSequence(javax.sql.DataSource dataSource, long rangeStart) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from person_entity", Long.class);
+        if (maxId == null || maxId < rangeStart) {
+            jdbcTemplate.execute("alter sequence person_seq restart with " + (rangeStart + ALLOCATION_SIZE));
+        }
+    }
+
+    /**
+     * 마지막 shard 가 아니면 person_seq 의 MAXVALUE 를 범위 끝으로 막는다.
+     *  ● 범위를 다 쓰면 shard 가 다음 범위의 id 를 만들지 않고 save 가 실패한다. (다음 범위 id 는 라우팅이 다른 shard 로 보내서 다시 찾을 수 없다)
+     *  ● 마지막 shard 는 범위 끝이 없다. (shardFor 가 범위를 넘는 id 를 마지막 shard 로 보낸다)
+     */
+    private void limitSequence(javax.sql.DataSource dataSource, int index) {
+        new JdbcTemplate(dataSource).execute("alter sequence person_seq maxvalue " + ((index + 1) * rangeSize - 1));
+    }
+
+    int getShardCount() {
+        return shards.size();
+    }
+
+    int shardIndexOf(Long id) {
+        return shardFor(id).index;
+    }
+
+    private Shard shardFor(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The given id must not be null!");
+        }
+        long index = Math.max(id, 0) / rangeSize;
+        return shards.get((int) Math.min(index, shards.size() - 1));
+    }
+
+    /**
+     * 새 엔티티를 저장할 shard (호출마다 돌아가며)
+     */
+    private Shard nextShard() {
+        return shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+    }
+
+    private Shard shardFor(PersonEntity entity) {
+        return entity.getId() == null ? nextShard() : shardFor(entity.getId());
+    }
+
+    // ------------------------------------------------------------------ 저장
+
+    @Override
+    public <S extends PersonEntity> S save(S entity) {
+        return shardFor(entity).write(repository -> repository.save(entity));
+    }
+
+    @Override
+    public <S extends PersonEntity> S saveAndFlush(S entity) {
+        return shardFor(entity).write(repository -> repository.saveAndFlush(entity));
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> saveAll(Iterable<S> entities) {
+        return saveAll(entities, false);
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities, true);
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> insertAll(List<S> entities) {
+        return nextShard().write(repository -> repository.insertAll(entities));
+    }
+
+    private <S extends PersonEntity> List<S> saveAll(Iterable<S> entities, boolean flush) {
+        return splitByShard(entities, (repository, batch) -> flush ? repository.saveAllAndFlush(batch) : repository.saveAll(batch));
+    }
+
+    /**
+     * 새 엔티티는 모두 한 shard 로, id 가 있는 엔티티는 자기 shard 로 나눠서 동시에 저장하고, 결과는 넘겨받은 순서대로 돌려준다. (shard 0 은 호출 스레드에서)
+     */
+    private <S extends PersonEntity> List<S> splitByShard(Iterable<S> entities,
+                                                         BiFunction<PersonRepository, List<S>, List<S>> save) {
+        Map<Shard, List<Integer>> positions = new LinkedHashMap<>();
+        List<S> all = new ArrayList<>();
+        Shard newShard = null;
+        for (S entity : entities) {
+            Shard shard;
+            if (entity.getId() != null) {
+                shard = shardFor(entity.getId());
+            } else {
+                if (newShard == null) {
+                    newShard = nextShard();
+                }
+                shard = newShard;
+            }
+            positions.computeIfAbsent(shard, target -> new ArrayList<>()).add(all.size());
+            all.add(entity);
+        }
+        List<Shard> targets = new ArrayList<>(positions.keySet());
+        List<List<S>> results = scatter(targets, shard -> {
+            List<S> batch = new ArrayList<>(positions.get(shard).size());
+            positions.get(shard).forEach(index -> batch.add(all.get(index)));
+            return shard.write(repository -> save.apply(repository, batch));
+        });
+        List<S> saved = new ArrayList<>(Collections.nCopies(all.size(), null));
+        for (int i = 0; i < targets.size(); i++) {
+            List<Integer> indexes = positions.get(targets.get(i));
+            List<S> result = results.get(i);
+            for (int j = 0; j < indexes.size(); j++) {
+                saved.set(indexes.get(j), result.get(j));
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public void flush() {
+        shards.forEach(shard -> shard.write(repository -> {
+            repository.flush();
+            return null;
+        }));
+    }
+
+    // ------------------------------------------------------------------ id 조회
+
+    @Override
+    public Optional<PersonEntity> findById(Long id) {
+        return shardFor(id).read(repository -> repository.findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return shardFor(id).read(repository -> repository.existsById(id));
+    }
+
+    @Override
+    public List<PersonEntity> findAllById(Iterable<Long> ids) {
+        List<PersonEntity> result = new ArrayList<>();
+        groupById(ids, Function.identity()).forEach((shard, shardIds) ->
+                result.addAll(shard.read(repository -> repository.findAllById(shardIds))));
+        return result;
+    }
+
+    @Override
+    @Deprecated
+    public PersonEntity getOne(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public PersonEntity getById(Long id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public PersonEntity getReferenceById(Long id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Unable to find PersonEntity with id " + id));
+    }
+
+    // ------------------------------------------------------------------ scatter-gather
+
+    @Override
+    public List<PersonEntity> findAll() {
+        return concat(scatter(shard -> shard.read(repository -> repository.findAll())));
+    }
+
+    @Override
+    public List<PersonEntity> findAll(Sort sort) {
+        List<PersonEntity> people = concat(scatter(shard -> shard.read(repository -> repository.findAll(sort))));
+        people.sort(comparator(sort));
+        return people;
+    }
+
+    @Override
+    public Page<PersonEntity> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        Pageable top = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), pageable.getSort());
+        List<PersonEntity> people = concat(scatter(shard -> shard.read(repository -> repository.findAll(top).getContent())));
+        return page(people, pageable, count());
+    }
+
+    @Override
+    public long count() {
+        return scatter(shard -> shard.read(repository -> repository.count())).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends PersonEntity> Optional<S> findOne(Example<S> example) {
+        List<S> people = concat(scatter(shard -> shard.read(repository -> repository.findOne(example)
+                .map(Collections::singletonList).orElse(Collections.emptyList()))));
+        if (people.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, people.size());
+        }
+        return people.stream().findFirst();
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> findAll(Example<S> example) {
+        return concat(scatter(shard -> shard.read(repository -> repository.findAll(example))));
+    }
+
+    @Override
+    public <S extends PersonEntity> List<S> findAll(Example<S> example, Sort sort) {
+        List<S> people = concat(scatter(shard -> shard.read(repository -> repository.findAll(example, sort))));
+        people.sort(comparator(sort));
+        return people;
+    }
+
+    @Override
+    public <S extends PersonEntity> Page<S> findAll(Example<S> example, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(example, pageable.getSort()));
+        }
+        Pageable top = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), pageable.getSort());
+        List<S> people = concat(scatter(shard -> shard.read(repository -> repository.findAll(example, top).getContent())));
+        return page(people, pageable, count(example));
+    }
+
+    @Override
+    public <S extends PersonEntity> long count(Example<S> example) {
+        return scatter(shard -> shard.read(repository -> repository.count(example))).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public <S extends PersonEntity> boolean exists(Example<S> example) {
+        return scatter(shard -> shard.read(repository -> repository.exists(example))).contains(true);
+    }
+
+    /**
+     * 정렬/projection 설정은 그대로 모든 shard 에 보내고, 종료 연산(all, page, count ...)의 결과를 합친다.
+     */
+    @Override
+    public <S extends PersonEntity, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ShardedFluentQuery<>(example, Sort.unsorted(), example.getProbeType(), Collections.emptyList()));
+    }
+
+    /**
+     * 범위가 shard 순서대로 정렬되어 있으므로 lastId 다음 id 의 shard 부터 size 개가 찰 때까지 차례로 읽는다.
+     *  ● keyset 페이지라 pageable 의 크기만 쓴다.
+     */
+    @Override
+    public List<PersonEntity> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<PersonEntity> people = new ArrayList<>(size);
+        for (int i = lastId == Long.MAX_VALUE ? shards.size() : shardFor(lastId + 1).index; i < shards.size() && people.size() < size; i++) {
+            int remaining = size - people.size();
+            people.addAll(shards.get(i).read(repository ->
+                    repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(remaining))));
+        }
+        return people;
+    }
+
+    @Override
+    public List<PersonEntity> findByNameStartingWithOrderByNameAscIdAsc(String prefix, Pageable pageable) {
+        return mergeByNameAndId(scatter(shard -> shard.read(repository ->
+                repository.findByNameStartingWithOrderByNameAscIdAsc(prefix, pageable))), pageable.getPageSize());
+    }
+
+    @Override
+    public List<PersonEntity> findByNameStartingWithAfter(String prefix, String afterName, Long afterId, Pageable pageable) {
+        return mergeByNameAndId(scatter(shard -> shard.read(repository ->
+                repository.findByNameStartingWithAfter(prefix, afterName, afterId, pageable))), pageable.getPageSize());
+    }
+
+    // ------------------------------------------------------------------ 삭제
+
+    @Override
+    public void deleteById(Long id) {
+        shardFor(id).write(repository -> {
+            repository.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(PersonEntity entity) {
+        if (entity.getId() == null) {
+            return;
+        }
+        shardFor(entity.getId()).write(repository -> {
+            repository.delete(entity);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        groupById(ids, Function.identity()).forEach((shard, shardIds) -> shard.write(repository -> {
+            repository.deleteAllById(shardIds);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends PersonEntity> entities) {
+        groupById(entities, PersonEntity::getId).forEach((shard, shardEntities) -> shard.write(repository -> {
+            repository.deleteAll(shardEntities);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAll() {
+        shards.forEach(shard -> shard.write(repository -> {
+            repository.deleteAll();
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<PersonEntity> entities) {
+        groupById(entities, PersonEntity::getId).forEach((shard, shardEntities) -> shard.write(repository -> {
+            repository.deleteAllInBatch(shardEntities);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        groupById(ids, Function.identity()).forEach((shard, shardIds) -> shard.write(repository -> {
+            repository.deleteAllByIdInBatch(shardIds);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        shards.forEach(shard -> shard.write(repository -> {
+            repository.deleteAllInBatch();
+            return null;
+        }));
+    }
+
+    // ------------------------------------------------------------------
+
+    private <T> List<T> scatter(Function<Shard, T> call) {
+        return scatter(shards, call);
+    }
+
+    /**
+     * shard 0 은 호출 스레드에서 (호출한 쪽 트랜잭션에 참여), 나머지는 동시에 실행하고 targets 순서대로 결과를 모은다.
+     */
+    private <T> List<T> scatter(List<Shard> targets, Function<Shard, T> call) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(targets.size());
+        for (Shard shard : targets) {
+            futures.add(shard.index == 0 ? null : CompletableFuture.supplyAsync(() -> call.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            CompletableFuture<T> future = futures.get(i);
+            if (future == null) {
+                results.add(call.apply(targets.get(i)));
+                continue;
+            }
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private <T, I extends T> Map<Shard, List<T>> groupById(Iterable<I> items, Function<? super I, Long> id) {
+        Map<Shard, List<T>> groups = new LinkedHashMap<>();
+        for (I item : items) {
+            Long itemId = id.apply(item);
+            if (itemId != null) {
+                groups.computeIfAbsent(shardFor(itemId), shard -> new ArrayList<>()).add(item);
+            }
+        }
+        return groups;
+    }
+
+    private static <T> List<T> concat(List<? extends List<? extends T>> lists) {
+        List<T> result = new ArrayList<>();
+        lists.forEach(result::addAll);
+        return result;
+    }
+
+    private static List<PersonEntity> mergeByNameAndId(List<List<PersonEntity>> lists, int size) {
+        List<PersonEntity> people = concat(lists);
+        people.sort(Comparator.comparing(PersonEntity::getName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(PersonEntity::getId));
+        return people.size() > size ? new ArrayList<>(people.subList(0, size)) : people;
+    }
+
+    private static <S extends PersonEntity> Page<S> page(List<S> people, Pageable pageable, long total) {
+        people.sort(comparator(pageable.getSort()));
+        int from = (int) Math.min(pageable.getOffset(), people.size());
+        int to = Math.min(from + pageable.getPageSize(), people.size());
+        return new PageImpl<>(new ArrayList<>(people.subList(from, to)), pageable, total);
+    }
+
+    /**
+     * 합친 결과를 다시 정렬한다. (projection 결과도 같은 이름의 속성으로 비교)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> property = Comparator.comparing(
+                    value -> (Comparable) propertyValue(value, order.getProperty()),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? property : property.reversed());
+        }
+        return comparator;
+    }
+
+    private static Object propertyValue(Object value, String property) {
+        BeanWrapperImpl beanWrapper = new BeanWrapperImpl(value);
+        if (!beanWrapper.isReadableProperty(property)) {
+            throw new InvalidDataAccessApiUsageException(
+                    "Cannot merge shard results sorted by '" + property + "': not readable on " + value.getClass().getName());
+        }
+        return beanWrapper.getPropertyValue(property);
+    }
+
+    private static CustomizableThreadFactory daemonThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("person-shard-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static int allocationSize() {
+        try {
+            return PersonEntity.class.getDeclaredField("id").getAnnotation(SequenceGenerator.class).allocationSize();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            if (shard.entityManagerFactory != null) {
+                shard.entityManagerFactory.close();
+            }
+            if (shard.dataSource != null) {
+                shard.dataSource.close();
+            }
+        }
+    }
+
+    /**
+     * findBy(Example, Function) 의 FetchableFluentQuery
+     *  ● sortBy / as / project 는 설정만 쌓고, 종료 연산마다 각 shard 의 FetchableFluentQuery 에 같은 설정을 적용해서 실행한다.
+     *  ● page 는 shard 마다 (offset + size) 개씩 읽어서 합치고, 전체 개수는 shard 별 전체 개수의 합이다.
+     */
+    private class ShardedFluentQuery<S extends PersonEntity, T> implements FluentQuery.FetchableFluentQuery<T> {
+
+        private final Example<S> example;
+
+        private final Sort sort;
+
+        private final Class<T> resultType;
+
+        private final Collection<String> properties;
+
+        ShardedFluentQuery(Example<S> example, Sort sort, Class<T> resultType, Collection<String> properties) {
+            this.example = example;
+            this.sort = sort;
+            this.resultType = resultType;
+            this.properties = properties;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<T> sortBy(Sort sort) {
+            return new ShardedFluentQuery<>(example, this.sort.and(sort), resultType, properties);
+        }
+
+        @Override
+        public <R> FluentQuery.FetchableFluentQuery<R> as(Class<R> resultType) {
+            return new ShardedFluentQuery<>(example, sort, resultType, properties);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<T> project(Collection<String> properties) {
+            return new ShardedFluentQuery<>(example, sort, resultType, new ArrayList<>(properties));
+        }
+
+        @Override
+        public T oneValue() {
+            List<T> values = nonNull(scatterQuery(FluentQuery.FetchableFluentQuery::oneValue));
+            if (values.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, values.size());
+            }
+            return values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public T firstValue() {
+            List<T> values = nonNull(scatterQuery(FluentQuery.FetchableFluentQuery::firstValue));
+            if (values.isEmpty()) {
+                return null;
+            }
+            return sort.isSorted() ? Collections.min(values, comparator(sort)) : values.get(0);
+        }
+
+        @Override
+        public List<T> all() {
+            List<T> values = concat(scatterQuery(FluentQuery.FetchableFluentQuery::all));
+            if (sort.isSorted()) {
+                values.sort(comparator(sort));
+            }
+            return values;
+        }
+
+        @Override
+        public Page<T> page(Pageable pageable) {
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(all());
+            }
+            Pageable top = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), pageable.getSort());
+            List<Page<T>> pages = scatterQuery(query -> query.page(top));
+            List<T> values = new ArrayList<>();
+            long total = 0;
+            for (Page<T> page : pages) {
+                values.addAll(page.getContent());
+                total += page.getTotalElements();
+            }
+            values.sort(comparator(sort.and(pageable.getSort())));
+            int from = (int) Math.min(pageable.getOffset(), values.size());
+            int to = Math.min(from + pageable.getPageSize(), values.size());
+            return new PageImpl<>(new ArrayList<>(values.subList(from, to)), pageable, total);
+        }
+
+        /**
+         * 합친 뒤에 정렬해야 하므로 스트리밍하지 않고 all() 을 읽어서 돌려준다.
+         */
+        @Override
+        public Stream<T> stream() {
+            return all().stream();
+        }
+
+        @Override
+        public long count() {
+            return scatterQuery(FluentQuery.FetchableFluentQuery::count).stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public boolean exists() {
+            return scatterQuery(FluentQuery.FetchableFluentQuery::exists).contains(true);
+        }
+
+        private <V> List<V> scatterQuery(Function<FluentQuery.FetchableFluentQuery<T>, V> terminal) {
+            return scatter(shard -> shard.read(repository -> repository.findBy(example, query -> terminal.apply(configure(query)))));
+        }
+
+        /**
+         * as() 는 결과 타입을 바꾼 경우에만 넘긴다. (JPA 구현은 엔티티 타입이라도 클래스를 넘기면 거절한다)
+         */
+        @SuppressWarnings("unchecked")
+        private FluentQuery.FetchableFluentQuery<T> configure(FluentQuery.FetchableFluentQuery<S> query) {
+            FluentQuery.FetchableFluentQuery<S> configured = query.sortBy(sort);
+            if (!properties.isEmpty()) {
+                configured = configured.project(properties);
+            }
+            return resultType == example.getProbeType()
+                    ? (FluentQuery.FetchableFluentQuery<T>) configured
+                    : configured.as(resultType);
+        }
+
+        private List<T> nonNull(List<T> values) {
+            List<T> result = new ArrayList<>(values.size());
+            for (T value : values) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class Shard {
+
+        private final int index;
+
+        private final PersonRepository repository;
+
+        private final TransactionTemplate writeTransaction;
+
+        private final TransactionTemplate readOnlyTransaction;
+
+        private final EntityManagerFactory entityManagerFactory;
+
+        private final HikariDataSource dataSource;
+
+        Shard(int index, PersonRepository repository, PlatformTransactionManager transactionManager,
+              EntityManagerFactory entityManagerFactory, HikariDataSource dataSource) {
+            this.index = index;
+            this.repository = repository;
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+            this.entityManagerFactory = entityManagerFactory;
+            this.dataSource = dataSource;
+        }
+
+        <T> T read(Function<PersonRepository, T> call) {
+            return readOnlyTransaction.execute(status -> call.apply(repository));
+        }
+
+        <T> T write(Function<PersonRepository, T> call) {
+            return writeTransaction.execute(status -> call.apply(repository));
+        }
+    }
+}
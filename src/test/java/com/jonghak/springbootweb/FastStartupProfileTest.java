@@ -0,0 +1,50 @@
+package com.jonghak.springbootweb;
+
+import com.jonghak.springbootweb.sample.PersonEntity;
+import com.jonghak.springbootweb.sample.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * fast-startup 프로파일 (지연 초기화, JPA lazy bootstrap, JAXB 클래스 직접 지정) 에서도 같은 응답이 나오는지
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-startup")
+class FastStartupProfileTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void helloJpa() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("fast-startup");
+        PersonEntity saved = personRepository.save(person);
+
+        this.mockMvc.perform(get("/hellojpa").param("id", saved.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello fast-startup"));
+    }
+
+    @Test
+    public void jsonMessageAsXml() throws Exception {
+        this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_XML)
+                        .content("{\"id\":2022,\"name\":\"jonghak\"}"))
+                .andExpect(status().isOk())
+                .andExpect(xpath("person/name").string("jonghak"));
+    }
+}
@@ -0,0 +1,22 @@
+package com.jonghak.springbootweb.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * - 벤치마크 공통 설정
+ */
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * 스프링 부트 없이 뜨는 벤치마크는 logback 기본값(DEBUG)이 측정을 방해하지 않도록 WARN 으로 낮춘다.
+     *  ● 스프링 부트로 띄우는 벤치마크는 logging.level.root=WARN 으로 설정한다.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+}
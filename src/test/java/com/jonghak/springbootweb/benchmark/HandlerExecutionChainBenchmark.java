@@ -0,0 +1,96 @@
+package com.jonghak.springbootweb.benchmark;
+
+import com.jonghak.springbootweb.interceptor.CachingRequestMappingHandlerMapping;
+import com.jonghak.springbootweb.sample.SampleController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 핸들러 찾기 + HandlerExecutionChain 만들기 (RequestMappingHandlerMapping.getHandler) 비용
+ *  1. requestMappingHandlerMapping : 기본 구현 (요청마다 MappedInterceptor 경로 패턴 비교)
+ *  2. cachingHandlerMapping        : CachingRequestMappingHandlerMapping (핸들러 메소드, 패턴마다 캐시된 목록)
+ *  ● interceptors 개수만큼 addPathPatterns 로 등록한 인터셉터를 둔다. (하나만 /hello* 에 맞고 나머지는 다른 경로)
+ *  ● /hello 는 고정 경로 매핑이라 캐시된 쪽은 인터셉터 개수와 관계없이 비용이 같아야 한다.
+ *
+ * - 실행 : ./mvnw -Pbenchmark verify -Dbenchmark=HandlerExecutionChainBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlerExecutionChainBenchmark {
+
+    @Param({"2", "20"})
+    public int interceptors;
+
+    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    private RequestMappingHandlerMapping cachingHandlerMapping;
+
+    @Setup
+    public void setUp() {
+        Benchmarks.quietLogging();
+
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.registerSingleton("sampleController", SampleController.class);
+        context.refresh();
+
+        requestMappingHandlerMapping = handlerMapping(new RequestMappingHandlerMapping(), context);
+        cachingHandlerMapping = handlerMapping(new CachingRequestMappingHandlerMapping(), context);
+    }
+
+    private RequestMappingHandlerMapping handlerMapping(RequestMappingHandlerMapping mapping, StaticWebApplicationContext context) {
+        Object[] mappedInterceptors = new Object[interceptors];
+        mappedInterceptors[0] = new MappedInterceptor(new String[]{"/hello*"}, null, new HandlerInterceptor() {
+        });
+        for (int i = 1; i < interceptors; i++) {
+            mappedInterceptors[i] = new MappedInterceptor(new String[]{"/other" + i + "/**"}, null, new HandlerInterceptor() {
+            });
+        }
+        mapping.setPatternParser(new PathPatternParser());
+        mapping.setInterceptors(mappedInterceptors);
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        return mapping;
+    }
+
+    @Benchmark
+    public HandlerExecutionChain requestMappingHandlerMapping() throws Exception {
+        return requestMappingHandlerMapping.getHandler(request());
+    }
+
+    @Benchmark
+    public HandlerExecutionChain cachingHandlerMapping() throws Exception {
+        return cachingHandlerMapping.getHandler(request());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+        request.setParameter("name", "jonghak");
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+}
@@ -0,0 +1,155 @@
+package com.jonghak.springbootweb.benchmark;
+
+import com.jonghak.springbootweb.config.WebConfig;
+import com.jonghak.springbootweb.converter.PersonBinaryHttpMessageConverter;
+import com.jonghak.springbootweb.converter.PersonXmlHttpMessageConverter;
+import com.jonghak.springbootweb.sample.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
+import org.springframework.http.converter.xml.MarshallingHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - Person 직렬화/역직렬화 비용 측정 (HTTP 메세지 컨버터 단위)
+ *  1. jackson*          : 스프링 부트가 등록하는 MappingJackson2HttpMessageConverter
+ *  2. jaxb2Marshaller*  : WebConfig.jaxb2Marshaller() 빈을 쓰는 MarshallingHttpMessageConverter
+ *  3. jaxbRootElement*  : JAXB 의존성이 있으면 스프링 MVC가 기본으로 등록하는 XML 컨버터
+ *  4. personXml*        : WebConfig 에서 추가한 PersonXmlHttpMessageConverter (/jsonMessage 의 실제 XML 경로)
+ *  5. personBinary*     : WebConfig 에서 추가한 PersonBinaryHttpMessageConverter (application/x-person)
+ *  ● 형식별 본문 크기(bytes)는 setUp 에서 한 번 로그로 남긴다.
+ *
+ * - 실행 : ./mvnw -Pbenchmark verify -Dbenchmark=PersonMessageConverterBenchmark
+ */
+@Slf4j
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonMessageConverterBenchmark {
+
+    private Person person;
+
+    private MappingJackson2HttpMessageConverter jackson;
+
+    private MarshallingHttpMessageConverter jaxb2Marshaller;
+
+    private Jaxb2RootElementHttpMessageConverter jaxbRootElement;
+
+    private PersonXmlHttpMessageConverter personXml;
+
+    private PersonBinaryHttpMessageConverter personBinary;
+
+    private byte[] json;
+
+    private byte[] xml;
+
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        person = new Person();
+        person.setId(2022L);
+        person.setName("jonghak");
+
+        jackson = new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+
+        Jaxb2Marshaller marshaller = WebConfig.jaxb2Marshaller();
+        marshaller.afterPropertiesSet();
+        jaxb2Marshaller = new MarshallingHttpMessageConverter(marshaller);
+
+        jaxbRootElement = new Jaxb2RootElementHttpMessageConverter();
+        personXml = new PersonXmlHttpMessageConverter(marshaller.getJaxbContext());
+
+        personBinary = new PersonBinaryHttpMessageConverter();
+
+        json = write(jackson, MediaType.APPLICATION_JSON);
+        xml = write(jaxbRootElement, MediaType.APPLICATION_XML);
+        binary = write(personBinary, PersonBinaryHttpMessageConverter.PERSON_BINARY);
+        log.info("Person payload bytes : json={}, xml={}, personXml={}, binary={}",
+                json.length, xml.length, write(personXml, MediaType.APPLICATION_XML).length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jacksonWrite() throws IOException {
+        return write(jackson, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public Object jacksonRead() throws IOException {
+        return jackson.read(Person.class, input(json, MediaType.APPLICATION_JSON));
+    }
+
+    @Benchmark
+    public byte[] jaxb2MarshallerWrite() throws IOException {
+        return write(jaxb2Marshaller, MediaType.APPLICATION_XML);
+    }
+
+    @Benchmark
+    public Object jaxb2MarshallerRead() throws IOException {
+        return jaxb2Marshaller.read(Person.class, input(xml, MediaType.APPLICATION_XML));
+    }
+
+    @Benchmark
+    public byte[] jaxbRootElementWrite() throws IOException {
+        return write(jaxbRootElement, MediaType.APPLICATION_XML);
+    }
+
+    @Benchmark
+    public Object jaxbRootElementRead() throws IOException {
+        return jaxbRootElement.read(Person.class, input(xml, MediaType.APPLICATION_XML));
+    }
+
+    @Benchmark
+    public byte[] personXmlWrite() throws IOException {
+        return write(personXml, MediaType.APPLICATION_XML);
+    }
+
+    @Benchmark
+    public Object personXmlRead() throws IOException {
+        return personXml.read(Person.class, input(xml, MediaType.APPLICATION_XML));
+    }
+
+    @Benchmark
+    public byte[] personBinaryWrite() throws IOException {
+        return write(personBinary, PersonBinaryHttpMessageConverter.PERSON_BINARY);
+    }
+
+    @Benchmark
+    public Object personBinaryRead() throws IOException {
+        return personBinary.read(Person.class, input(binary, PersonBinaryHttpMessageConverter.PERSON_BINARY));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] write(HttpMessageConverter<?> converter, MediaType mediaType) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        ((HttpMessageConverter<Object>) converter).write(person, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static MockHttpInputMessage input(byte[] body, MediaType mediaType) {
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentType(mediaType);
+        return input;
+    }
+}
@@ -0,0 +1,91 @@
+package com.jonghak.springbootweb.benchmark;
+
+import com.jonghak.springbootweb.SpringbootWebApplication;
+import com.jonghak.springbootweb.sample.PersonEntity;
+import com.jonghak.springbootweb.sample.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - shard 수에 따른 PersonEntity 저장 처리량 (ShardedPersonRepository, 스레드 4개가 동시에 save / insertAll)
+ *  ● shards=1 은 샤딩을 끈 기본 PersonRepository, 2 / 4 는 H2 메모리 DB 를 shard 마다 하나씩 더 띄운다.
+ *  ● insertAll 은 대량 저장/write-behind 와 같은 경로 (100 개 배치를 한 shard 의 한 트랜잭션으로 저장)
+ *  ● 호출마다 shard 를 돌아가며 저장되므로 동시에 들어온 호출들의 트랜잭션/커넥션 풀/H2 쓰기 경합이 shard 수만큼 나뉜다.
+ *  ● 같은 프로세스 안의 H2 라서 CPU 코어 수 이상으로는 늘지 않는다. (코어가 하나면 라우팅 비용만 보인다)
+ *
+ * - 실행 : ./mvnw -Pbenchmark verify -Dbenchmark=PersonShardingBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonShardingBenchmark {
+
+    @Param({"1", "2", "4"})
+    public int shards;
+
+    private ConfigurableApplicationContext context;
+
+    private PersonRepository personRepository;
+
+    @Setup
+    public void setUp() {
+        List<String> properties = new ArrayList<>();
+        properties.add("person.sharding.enabled=" + (shards > 1));
+        properties.add("server.port=0");
+        properties.add("logging.level.root=WARN");
+        for (int i = 1; i < shards; i++) {
+            // 목록은 한 property source 에서만 바인딩되므로 application.properties 의 data-sources 를 통째로 대신한다.
+            properties.add("person.sharding.data-sources[" + (i - 1) + "].url=jdbc:h2:mem:benchmark-shard-" + i);
+        }
+        context = new SpringApplicationBuilder(SpringbootWebApplication.class)
+                .web(WebApplicationType.SERVLET) // WebConfig 가 웹 자동 설정(WebProperties)을 쓴다
+                .properties(properties.toArray(new String[0]))
+                .run();
+        personRepository = context.getBean(PersonRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PersonEntity save() {
+        PersonEntity person = new PersonEntity();
+        person.setName("jonghak");
+        return personRepository.save(person);
+    }
+
+    @Benchmark
+    public List<PersonEntity> insertAll() {
+        List<PersonEntity> people = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            PersonEntity person = new PersonEntity();
+            person.setName("jonghak");
+            people.add(person);
+        }
+        return personRepository.insertAll(people);
+    }
+}
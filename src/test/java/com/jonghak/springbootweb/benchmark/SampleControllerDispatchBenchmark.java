@@ -0,0 +1,92 @@
+package com.jonghak.springbootweb.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonghak.springbootweb.SpringbootWebApplication;
+import com.jonghak.springbootweb.converter.PersonBinaryHttpMessageConverter;
+import com.jonghak.springbootweb.sample.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * - DispatcherServlet 을 거치는 /jsonMessage 전체 처리 비용 측정
+ *  ● 핸들러 매핑 -> 인터셉터 -> @RequestBody 읽기 -> SampleController.jsonMessage -> @ResponseBody 쓰기
+ *  ● 애플리케이션 컨텍스트를 그대로 띄우고 webAppContextSetup 으로 MockMvc 를 만든다.
+ *    (WebConfig 의 인터셉터, 메세지 컨버터, CachingRequestMappingHandlerMapping 이 모두 들어간다)
+ *  ● 응답 형식만 바꿔서 JSON / XML(PersonXmlHttpMessageConverter) / 바이너리(application/x-person) 경로를 비교한다.
+ *
+ * - 실행 : ./mvnw -Pbenchmark verify -Dbenchmark=SampleControllerDispatchBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SampleControllerDispatchBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(SpringbootWebApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        Person person = new Person();
+        person.setId(2022L);
+        person.setName("jonghak");
+        json = new ObjectMapper().writeValueAsString(person);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] jsonMessage() throws Exception {
+        return dispatch(MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public byte[] xmlMessage() throws Exception {
+        return dispatch(MediaType.APPLICATION_XML);
+    }
+
+    @Benchmark
+    public byte[] binaryMessage() throws Exception {
+        return dispatch(PersonBinaryHttpMessageConverter.PERSON_BINARY);
+    }
+
+    private byte[] dispatch(MediaType accept) throws Exception {
+        return mockMvc.perform(get("/jsonMessage")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(accept)
+                        .content(json))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
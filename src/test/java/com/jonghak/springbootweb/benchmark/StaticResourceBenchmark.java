@@ -0,0 +1,151 @@
+package com.jonghak.springbootweb.benchmark;
+
+import com.jonghak.springbootweb.resource.CachedResourceHttpMessageConverter;
+import com.jonghak.springbootweb.resource.InMemoryResourceResolver;
+import com.jonghak.springbootweb.resource.StaticResourceCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.CachingResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 정적 리소스 한 건 응답 비용 비교 (서블릿 컨테이너 없이 ResourceHttpRequestHandler 직접 호출)
+ *  1. resourceHandler : 기본 ResourceHttpRequestHandler (PathResourceResolver, 매 요청 파일을 찾고 4KB 씩 복사)
+ *  2. cachedResource  : CachingResourceResolver + InMemoryResourceResolver + CachedResourceHttpMessageConverter
+ *  ● 응답 본문은 바이트 수만 세는 출력 스트림으로 버린다. (MockHttpServletResponse 의 스트림은 한 바이트씩 써서 측정을 가린다)
+ *  ● 톰캣이 아니므로 direct ByteBuffer 쓰기, sendfile 효과는 포함되지 않는다. (캐시된 쪽은 byte[] 한 번 복사 경로로 측정된다)
+ *
+ * - 실행 : ./mvnw -Pbenchmark verify -Dbenchmark=StaticResourceBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StaticResourceBenchmark {
+
+    @Param({"1024", "65536", "524288"})
+    public int size;
+
+    private Path directory;
+
+    private ResourceHttpRequestHandler resourceHandler;
+
+    private ResourceHttpRequestHandler cachedResourceHandler;
+
+    @Setup
+    public void setUp() throws Exception {
+        Benchmarks.quietLogging();
+
+        directory = Files.createTempDirectory("static-resource-benchmark");
+        byte[] content = new byte[size];
+        new Random(2022).nextBytes(content);
+        Files.write(directory.resolve("app.js"), content);
+        FileSystemResource location = new FileSystemResource(directory.toString() + "/");
+
+        resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setLocations(Collections.singletonList(location));
+        resourceHandler.setServletContext(new MockServletContext());
+        resourceHandler.afterPropertiesSet();
+
+        StaticResourceCache cache = new StaticResourceCache(
+                DataSize.ofMegabytes(32), DataSize.ofMegabytes(1), DataSize.ofKilobytes(48));
+        cachedResourceHandler = new ResourceHttpRequestHandler();
+        cachedResourceHandler.setLocations(Collections.singletonList(location));
+        cachedResourceHandler.setResourceResolvers(Arrays.asList(
+                new CachingResourceResolver(new ConcurrentMapCache("static-resource-benchmark")),
+                new InMemoryResourceResolver(cache),
+                new PathResourceResolver()));
+        cachedResourceHandler.setResourceHttpMessageConverter(
+                new CachedResourceHttpMessageConverter(cache.getSendfileThreshold()));
+        cachedResourceHandler.setServletContext(new MockServletContext());
+        cachedResourceHandler.afterPropertiesSet();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long resourceHandler() throws Exception {
+        return handle(resourceHandler);
+    }
+
+    @Benchmark
+    public long cachedResource() throws Exception {
+        return handle(cachedResourceHandler);
+    }
+
+    private long handle(ResourceHttpRequestHandler handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app.js");
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "app.js");
+        CountingResponse response = new CountingResponse();
+        handler.handleRequest(request, response);
+        return response.outputStream.count;
+    }
+
+    private static class CountingResponse extends MockHttpServletResponse {
+
+        private final CountingOutputStream outputStream = new CountingOutputStream();
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+
+    private static class CountingOutputStream extends ServletOutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
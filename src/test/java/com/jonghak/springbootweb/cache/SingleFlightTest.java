@@ -0,0 +1,127 @@
+package com.jonghak.springbootweb.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void concurrentLoadsShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            results.add(result);
+            threads.add(start(() -> result.complete(load(() -> {
+                calls.incrementAndGet();
+                await(release);
+                return "jonghak";
+            }))));
+        }
+        awaitBlocked(threads); // leader 는 latch 에서, 나머지는 진행중인 로드에서 대기
+        release.countDown();
+
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("jonghak");
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    public void failureIsSharedAndNotCached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Throwable> leaderFailure = new CompletableFuture<>();
+        Thread leader = start(() -> {
+            try {
+                singleFlight.load(1L, id -> {
+                    await(release);
+                    throw new IllegalStateException("db down");
+                }, Duration.ofSeconds(5));
+            } catch (Throwable e) {
+                leaderFailure.complete(e);
+            }
+        });
+        awaitBlocked(List.of(leader));
+
+        CompletableFuture<Throwable> followerFailure = new CompletableFuture<>();
+        Thread follower = start(() -> {
+            try {
+                singleFlight.load(1L, id -> "unused", Duration.ofSeconds(5));
+            } catch (Throwable e) {
+                followerFailure.complete(e);
+            }
+        });
+        awaitBlocked(List.of(follower));
+        release.countDown();
+
+        assertThat(leaderFailure.get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class).hasMessage("db down");
+        assertThat(followerFailure.get(5, TimeUnit.SECONDS)).isSameAs(leaderFailure.get());
+
+        assertThat(singleFlight.load(1L, id -> "retried", Duration.ofSeconds(5))).isEqualTo("retried");
+    }
+
+    @Test
+    public void followerTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread leader = start(() -> result.complete(load(() -> {
+            await(release);
+            return "slow";
+        })));
+        awaitBlocked(List.of(leader));
+
+        assertThatThrownBy(() -> singleFlight.load(1L, id -> "unused", Duration.ofMillis(50)))
+                .isInstanceOf(TimeoutException.class);
+
+        release.countDown();
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+
+    private String load(java.util.function.Supplier<String> loader) {
+        try {
+            return singleFlight.load(1L, id -> loader.get(), Duration.ofSeconds(5));
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Thread start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitBlocked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.jonghak.springbootweb.interceptor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlInterceptorTest {
+
+    @Test
+    public void tokenBucketRefill() {
+        TokenBucket bucket = new TokenBucket(10, 2); // 100ms 마다 1개, 최대 2개
+        long now = 0;
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+    }
+
+    @Test
+    public void rateLimitedPerClient() throws Exception {
+        AdmissionControlProperties.Rule rule = rule();
+        rule.setClientRate(0.1);
+        rule.setClientBurst(2);
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(rule, new AdmissionControlProperties());
+
+        assertThat(interceptor.preHandle(request("10.0.0.1"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(request("10.0.0.1"), new MockHttpServletResponse(), null)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("10.0.0.1"), rejected, null)).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+
+        assertThat(interceptor.preHandle(request("10.0.0.2"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.getStats()).containsEntry("admitted", 3L).containsEntry("rateLimited", 1L);
+    }
+
+    @Test
+    public void shedOverConcurrencyLimit() throws Exception {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.getConcurrency().setInitialLimit(1);
+        properties.getConcurrency().setMinLimit(1);
+        properties.getConcurrency().setMaxLimit(1);
+        AdmissionControlProperties.Rule rule = rule();
+        rule.setAdaptiveConcurrency(true);
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(rule, properties);
+
+        MockHttpServletRequest first = request("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(first, response, null)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request("10.0.0.2"), rejected, null)).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        interceptor.afterCompletion(first, response, null, null);
+        assertThat(interceptor.preHandle(request("10.0.0.2"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.getStats()).containsEntry("shed", 1L).containsEntry("inFlight", 1);
+    }
+
+    @Test
+    public void refundClientTokenWhenShed() throws Exception {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.getConcurrency().setInitialLimit(1);
+        properties.getConcurrency().setMinLimit(1);
+        properties.getConcurrency().setMaxLimit(1);
+        AdmissionControlProperties.Rule rule = rule();
+        rule.setClientRate(0.1);
+        rule.setClientBurst(2);
+        rule.setAdaptiveConcurrency(true);
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(rule, properties);
+
+        MockHttpServletRequest first = request("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(first, response, null)).isTrue();
+        for (int i = 0; i < 3; i++) { // 동시 처리 한도에서 거절되면 클라이언트 토큰은 깎이지 않는다 (429 가 아니라 계속 503)
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(request("10.0.0.1"), rejected, null)).isFalse();
+            assertThat(rejected.getStatus()).isEqualTo(503);
+        }
+
+        interceptor.afterCompletion(first, response, null, null);
+        assertThat(interceptor.preHandle(request("10.0.0.1"), new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.getStats()).containsEntry("shed", 3L).containsEntry("rateLimited", 0L);
+    }
+
+    @Test
+    public void tokenBucketRefund() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isPositive();
+        bucket.refund();
+        assertThat(bucket.tryAcquire(0)).isZero();
+    }
+
+    @Test
+    public void concurrencyLimitBacksOffOnLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, 2.0, 1000);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        for (int i = 0; i < 9; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10)); // 최소 지연시간의 10배
+        }
+        assertThat(limiter.getLimit()).isLessThan(10).isGreaterThanOrEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private static AdmissionControlProperties.Rule rule() {
+        AdmissionControlProperties.Rule rule = new AdmissionControlProperties.Rule();
+        rule.setPathPatterns(Collections.singletonList("/hello*"));
+        return rule;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
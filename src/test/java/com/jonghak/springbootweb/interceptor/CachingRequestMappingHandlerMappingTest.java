@@ -0,0 +1,51 @@
+package com.jonghak.springbootweb.interceptor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CachingRequestMappingHandlerMappingTest {
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    RequestMappingHandlerMapping handlerMapping;
+
+    @Test
+    public void cachePerHandlerAndPattern() throws Exception {
+        assertThat(handlerMapping).isInstanceOf(CachingRequestMappingHandlerMapping.class);
+        CachingRequestMappingHandlerMapping mapping = (CachingRequestMappingHandlerMapping) handlerMapping;
+        int before = mapping.getCachedChainCount();
+
+        // /hello 는 고정 경로라서 AnotherInterceptor(/hello*) 적용 여부가 캐시된다.
+        List<HandlerInterceptor> hello = interceptors("/hello");
+        assertThat(interceptors("/hello")).isEqualTo(hello);
+        assertThat(mapping.getCachedChainCount()).isEqualTo(before + 1);
+
+        // /hello/{name} 은 같은 핸들러 패턴이라도 요청 경로마다 /hello* 를 다시 비교한다.
+        List<HandlerInterceptor> helloName = interceptors("/hello/jonghak");
+        assertThat(interceptors("/hello/keesun")).isEqualTo(helloName);
+        assertThat(mapping.getCachedChainCount()).isEqualTo(before + 2);
+        assertThat(hello).hasSize(helloName.size() + 1);
+        assertThat(hello).containsAll(helloName);
+    }
+
+    private List<HandlerInterceptor> interceptors(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setParameter("name", "jonghak");
+        ServletRequestPathUtils.parseAndCache(request);
+        HandlerExecutionChain chain = handlerMapping.getHandler(request);
+        assertThat(chain).isNotNull();
+        return chain.getInterceptorList();
+    }
+}
@@ -0,0 +1,95 @@
+package com.jonghak.springbootweb.jfr;
+
+import com.jonghak.springbootweb.sample.PersonEntity;
+import com.jonghak.springbootweb.sample.PersonRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "jfr.endpoint.enabled=true")
+@AutoConfigureMockMvc
+class JfrRecordingControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void recordCustomEvents() throws Exception {
+        this.mockMvc.perform(post("/jfr/stop"))
+                .andExpect(status().isConflict());
+        this.mockMvc.perform(post("/jfr/start"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.settings").value("profile"));
+        this.mockMvc.perform(post("/jfr/start"))
+                .andExpect(status().isConflict());
+
+        PersonEntity person = new PersonEntity();
+        person.setName("jfr");
+        Long id = personRepository.save(person).getId();
+        this.mockMvc.perform(get("/hello").param("name", "jonghak"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/hellojpa").param("id", id.toString()))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":2022,\"name\":\"jonghak\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult stop = this.mockMvc.perform(post("/jfr/stop"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] recording = this.mockMvc.perform(asyncDispatch(stop))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Path file = Files.createTempFile("jfr-test-", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.jonghak.springbootweb."))
+                    .collect(Collectors.toList());
+
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".InterceptorPhase")
+                    && "AnotherInterceptor".equals(event.getString("interceptor"))
+                    && "preHandle".equals(event.getString("phase"))
+                    && "SampleController#getHelloParam".equals(event.getString("handler")));
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".ArgumentConversion")
+                    && "PersonEntityFormatter".equals(event.getString("converter"))
+                    && id.toString().equals(event.getString("source")));
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".ArgumentConversion")
+                    && "PersonFormatter".equals(event.getString("converter")));
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".MessageConversion")
+                    && "read".equals(event.getString("direction"))
+                    && "SampleController#jsonMessage".equals(event.getString("handler")));
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".MessageConversion")
+                    && "write".equals(event.getString("direction"))
+                    && event.getString("contentType").startsWith(MediaType.APPLICATION_JSON_VALUE));
+            assertThat(events).anyMatch(event -> event.getEventType().getName().endsWith(".RepositoryCall")
+                    && "PersonRepository".equals(event.getString("repository"))
+                    && "save".equals(event.getString("method")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
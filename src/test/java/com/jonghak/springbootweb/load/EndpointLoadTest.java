@@ -0,0 +1,136 @@
+package com.jonghak.springbootweb.load;
+
+import com.jonghak.springbootweb.sample.PersonEntity;
+import com.jonghak.springbootweb.sample.PersonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * - 모든 경로 부하 테스트 (기본 빌드에서는 제외, ./mvnw -Ploadtest test)
+ *  1. 랜덤 포트로 띄운 애플리케이션에 SampleController 의 모든 경로와 정적 리소스, 뷰 컨트롤러(/hi) 경로로 보낸다.
+ *  2. 경로마다 open loop(load.rate), closed loop(load.concurrency) 를 차례대로 돌린다. (load.mode = open | closed | both)
+ *  3. 결과는 target/load-test 에 경로별 .hgrm 과 summary.json 으로 남기고, 같은 요약을 표로 로그에 남긴다.
+ *  4. load.baseline 이 있으면 LoadSummary.compareTo 로 비교해서 회귀가 있으면 실패한다. (load.tolerance, load.slack-ms)
+ *
+ * ps. /hello, /hello/{name} 은 @CacheableResponse 라 워밍업 이후에는 응답 캐시에서 나간다.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EndpointLoadTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void allEndpoints() throws Exception {
+        String mode = System.getProperty("load.mode", "both");
+        double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        Duration warmup = LoadGenerator.parseDuration(System.getProperty("load.warmup", "2s"));
+        Duration duration = LoadGenerator.parseDuration(System.getProperty("load.duration", "5s"));
+        Path output = Paths.get(System.getProperty("load.output", "target/load-test"));
+
+        Map<String, HttpRequest> routes = routes();
+        HttpClient client = HttpClient.newHttpClient();
+        for (Map.Entry<String, HttpRequest> route : routes.entrySet()) {
+            HttpResponse<Void> response = client.send(route.getValue(), HttpResponse.BodyHandlers.discarding());
+            assertThat(response.statusCode()).as(route.getKey()).isEqualTo(200);
+        }
+
+        LoadGenerator generator = new LoadGenerator(warmup, duration);
+        List<LoadResult> results = new ArrayList<>();
+        for (Map.Entry<String, HttpRequest> route : routes.entrySet()) {
+            if (!"closed".equals(mode)) {
+                results.add(generator.openLoop(route.getKey(), route.getValue(), rate));
+            }
+            if (!"open".equals(mode)) {
+                results.add(generator.closedLoop(route.getKey(), route.getValue(), concurrency));
+            }
+        }
+
+        Files.createDirectories(output);
+        for (LoadResult result : results) {
+            result.writeDistribution(output);
+        }
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", mode);
+        settings.put("rate", rate);
+        settings.put("concurrency", concurrency);
+        settings.put("warmup", warmup.toString());
+        settings.put("duration", duration.toString());
+        LoadSummary summary = LoadSummary.of(settings, results);
+        summary.write(output.resolve("summary.json"));
+        log.info("Endpoint load test {}\n{}", settings, summary.toTable());
+
+        String baseline = System.getProperty("load.baseline");
+        if (baseline != null) {
+            double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.2"));
+            double slackMs = Double.parseDouble(System.getProperty("load.slack-ms", "1"));
+            assertThat(summary.compareTo(LoadSummary.read(Paths.get(baseline)), tolerance, slackMs)).isEmpty();
+        }
+    }
+
+    private Map<String, HttpRequest> routes() {
+        PersonEntity person = new PersonEntity();
+        person.setName("jonghak");
+        Long id = personRepository.save(person).getId();
+
+        Map<String, HttpRequest> routes = new LinkedHashMap<>();
+        routes.put("hello-path", get("/hello/jonghak"));
+        routes.put("hello-param", get("/hello?name=jonghak"));
+        routes.put("hellojpa", get("/hellojpa?id=" + id));
+        routes.put("message", getWithBody("/message", MediaType.TEXT_PLAIN_VALUE, "hello"));
+        routes.put("jsonMessage", getWithBody("/jsonMessage", MediaType.APPLICATION_JSON_VALUE,
+                "{\"id\":2022,\"name\":\"jonghak\"}"));
+        routes.put("jsonMessages", getWithBody("/jsonMessages", MediaType.APPLICATION_JSON_VALUE,
+                "[{\"id\":1,\"name\":\"jonghak\"},{\"id\":2,\"name\":\"keesun\"}]"));
+        routes.put("static-index", get("/index.html"));
+        routes.put("mobile-index", get("/mobile/index.html"));
+        routes.put("view-hi", get("/hi"));
+        return routes;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    /**
+     * SampleController 의 메세지 경로는 GET + 본문(@RequestBody) 이다.
+     */
+    private HttpRequest getWithBody(String path, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .method("GET", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+}
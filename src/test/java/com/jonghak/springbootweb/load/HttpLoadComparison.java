@@ -0,0 +1,78 @@
+package com.jonghak.springbootweb.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * - 서블릿(springboot-web, 8080) / WebFlux(springboot-webflux, 8081) 처리량, 지연시간 비교 부하 테스트
+ *  1. EndpointLoadTest 와 같은 LoadGenerator 로 두 서버에 같은 경로를 차례대로 보내서 같은 조건으로 비교한다.
+ *  2. mode=closed(기본) 는 동시 요청 수(concurrency) 고정, mode=open 은 초당 rate 개 (coordinated omission 없음)
+ *  3. 결과는 LoadSummary 표로 로그에 남기고, output 을 주면 summary.json 과 .hgrm 도 남긴다.
+ *
+ * - 실행 (두 애플리케이션을 먼저 띄운다)
+ *  ./mvnw spring-boot:run
+ *  (cd springboot-webflux && ../mvnw spring-boot:run)
+ *  ./mvnw exec:java -Dexec.classpathScope=test \
+ *      -Dexec.mainClass=com.jonghak.springbootweb.load.HttpLoadComparison \
+ *      -Dexec.args="servlet=http://localhost:8080/hello/jonghak webflux=http://localhost:8081/hello/jonghak" \
+ *      -Dconcurrency=256 -Dduration=30s -Dwarmup=5s -Doutput=target/load-comparison
+ *
+ *  ● /hellojpa 를 비교하려면 양쪽 모두 같은 id 의 PersonEntity 가 있어야 한다.
+ */
+@Slf4j
+public class HttpLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: HttpLoadComparison <name>=<url> [<name>=<url> ...]");
+        }
+        Map<String, URI> targets = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            targets.put(arg.substring(0, eq), URI.create(arg.substring(eq + 1)));
+        }
+        String mode = System.getProperty("mode", "closed");
+        int concurrency = Integer.getInteger("concurrency", 256);
+        double rate = Double.parseDouble(System.getProperty("rate", "1000"));
+        Duration warmup = LoadGenerator.parseDuration(System.getProperty("warmup", "5s"));
+        Duration duration = LoadGenerator.parseDuration(System.getProperty("duration", "30s"));
+
+        LoadGenerator generator = new LoadGenerator(warmup, duration);
+        List<LoadResult> results = new ArrayList<>();
+        for (Map.Entry<String, URI> target : targets.entrySet()) {
+            HttpRequest request = HttpRequest.newBuilder(target.getValue()).timeout(Duration.ofSeconds(30)).GET().build();
+            results.add("open".equals(mode)
+                    ? generator.openLoop(target.getKey(), request, rate)
+                    : generator.closedLoop(target.getKey(), request, concurrency));
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", mode);
+        settings.put("rate", rate);
+        settings.put("concurrency", concurrency);
+        settings.put("warmup", warmup.toString());
+        settings.put("duration", duration.toString());
+        LoadSummary summary = LoadSummary.of(settings, results);
+        log.info("Load comparison {}\n{}", settings, summary.toTable());
+
+        String output = System.getProperty("output");
+        if (output != null) {
+            Path directory = Paths.get(output);
+            Files.createDirectories(directory);
+            for (LoadResult result : results) {
+                result.writeDistribution(directory);
+            }
+            summary.write(directory.resolve("summary.json"));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.jonghak.springbootweb.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * - HTTP 부하 생성기 (java.net.http, 비동기)
+ *  1. open loop : 초당 rate 개를 정해진 시각에 보낸다. 응답을 기다리지 않는다.
+ *      ● 지연시간은 실제로 보낸 시각이 아니라 "보냈어야 할 시각" 부터 잰다.
+ *        서버가 느려져서 보내는 쪽이 밀려도 그 대기 시간이 빠지지 않는다. (coordinated omission 없음)
+ *  2. closed loop : concurrency 명의 사용자가 응답을 받으면 바로 다음 요청을 보낸다.
+ *      ● 서버가 느려지면 요청도 덜 보내므로 꼬리 지연시간이 실제보다 작게 나온다. 최대 처리량을 볼 때 쓴다.
+ *  3. 워밍업 이후 측정 구간에 시작한 요청만 HdrHistogram 에 기록한다. (nanos, 유효숫자 3자리)
+ *      ● 4xx/5xx, 예외는 지연시간 대신 errors 로 센다.
+ *  4. EndpointLoadTest(모든 경로)와 HttpLoadComparison(서블릿/WebFlux 비교)이 같이 쓴다.
+ */
+class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    LoadGenerator(Duration warmup, Duration duration) {
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    LoadResult openLoop(String name, HttpRequest request, double ratePerSecond) {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        LongAdder errors = new LongAdder();
+        long interval = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<CompletableFuture<?>> measured = new ArrayList<>();
+        for (long intended = start; intended < measureUntil; intended += interval) {
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            long scheduled = intended;
+            CompletableFuture<?> response = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((result, ex) -> {
+                        if (scheduled >= measureFrom) {
+                            record(histogram, errors, result, ex, System.nanoTime() - scheduled);
+                        }
+                        return null;
+                    });
+            if (scheduled >= measureFrom) {
+                measured.add(response);
+            }
+        }
+        CompletableFuture.allOf(measured.toArray(new CompletableFuture[0])).join();
+        return new LoadResult(name, "open", histogram, errors.sum(), duration);
+    }
+
+    LoadResult closedLoop(String name, HttpRequest request, int concurrency) {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<User> users = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            User user = new User(request, histogram, errors, measureFrom, measureUntil);
+            users.add(user);
+            user.next();
+        }
+        users.forEach(user -> user.done.join());
+        return new LoadResult(name, "closed", histogram, errors.sum(), duration);
+    }
+
+    /**
+     * 5s, 30s, 1m 같은 값을 Duration 으로
+     */
+    static Duration parseDuration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static void record(Histogram histogram, LongAdder errors, HttpResponse<?> response, Throwable ex, long nanos) {
+        if (ex != null || response.statusCode() >= 400) {
+            errors.increment();
+        } else {
+            histogram.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    /**
+     * 요청 하나씩 순서대로 보내는 가상 사용자 (이전 응답의 완료 콜백에서 다음 요청)
+     */
+    private class User {
+
+        private final HttpRequest request;
+
+        private final Histogram histogram;
+
+        private final LongAdder errors;
+
+        private final long measureFrom;
+
+        private final long measureUntil;
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        User(HttpRequest request, Histogram histogram, LongAdder errors, long measureFrom, long measureUntil) {
+            this.request = request;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        void next() {
+            long start = System.nanoTime();
+            if (start >= measureUntil) {
+                done.complete(null);
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= measureUntil) {
+                            record(histogram, errors, response, ex, end - start);
+                        }
+                        next();
+                    });
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jonghak.springbootweb.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 경로 하나, 모드 하나의 측정 결과
+ */
+class LoadResult {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+
+    private final String mode;
+
+    private final Histogram histogram;
+
+    private final long errors;
+
+    private final Duration duration;
+
+    LoadResult(String name, String mode, Histogram histogram, long errors, Duration duration) {
+        this.name = name;
+        this.mode = mode;
+        this.histogram = histogram;
+        this.errors = errors;
+        this.duration = duration;
+    }
+
+    /**
+     * summary.json 의 키 (경로이름/모드)
+     */
+    String getKey() {
+        return name + "/" + mode;
+    }
+
+    Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("throughput", histogram.getTotalCount() / (duration.toNanos() / 1_000_000_000.0));
+        summary.put("errors", errors);
+        summary.put("p50Ms", percentileMillis(50));
+        summary.put("p90Ms", percentileMillis(90));
+        summary.put("p99Ms", percentileMillis(99));
+        summary.put("p999Ms", percentileMillis(99.9));
+        summary.put("maxMs", histogram.getMaxValue() / NANOS_PER_MILLI);
+        return summary;
+    }
+
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * HdrHistogram 백분위 분포 (.hgrm, 단위 ms) : HistogramLogAnalyzer, hdrhistogram.github.io/HdrHistogram/plotFiles.html 로 그려볼 수 있다.
+     */
+    void writeDistribution(Path directory) throws IOException {
+        Path file = directory.resolve(name + "-" + mode + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+}
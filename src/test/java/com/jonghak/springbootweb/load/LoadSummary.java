@@ -0,0 +1,104 @@
+package com.jonghak.springbootweb.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * - 부하 테스트 요약 (summary.json) 과 기준(baseline) 비교
+ *  1. 형식 : {"settings": {...}, "results": {"hello-path/open": {"requests", "throughput", "errors", "p50Ms", ... "maxMs"}}}
+ *  2. 기준 파일도 같은 형식이다. (이전 실행의 summary.json 을 그대로 복사해서 쓴다)
+ *  3. 기준에 있는 결과마다 아래 중 하나라도 해당하면 회귀로 본다.
+ *      ● p99 가 기준 * (1 + tolerance) + slackMs 보다 크다. (작은 값의 흔들림은 slackMs 로 흡수)
+ *      ● 처리량이 기준 * (1 - tolerance) 보다 작다.
+ *      ● 기준에는 오류가 없었는데 오류가 생겼다.
+ *      ● 결과가 없다.
+ */
+class LoadSummary {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Object> settings;
+
+    private final Map<String, Map<String, Double>> results;
+
+    LoadSummary(Map<String, Object> settings, Map<String, Map<String, Double>> results) {
+        this.settings = settings;
+        this.results = results;
+    }
+
+    static LoadSummary of(Map<String, Object> settings, List<LoadResult> results) {
+        Map<String, Map<String, Double>> summaries = new LinkedHashMap<>();
+        for (LoadResult result : results) {
+            Map<String, Double> summary = new LinkedHashMap<>();
+            result.toSummary().forEach((key, value) -> summary.put(key, ((Number) value).doubleValue()));
+            summaries.put(result.getKey(), summary);
+        }
+        return new LoadSummary(settings, summaries);
+    }
+
+    static LoadSummary read(Path file) throws IOException {
+        Map<String, Object> json = OBJECT_MAPPER.readValue(file.toFile(), new TypeReference<Map<String, Object>>() {
+        });
+        @SuppressWarnings("unchecked")
+        Map<String, Object> settings = (Map<String, Object>) json.getOrDefault("settings", new LinkedHashMap<>());
+        Map<String, Map<String, Double>> results = OBJECT_MAPPER.convertValue(json.get("results"),
+                new TypeReference<Map<String, Map<String, Double>>>() {
+                });
+        return new LoadSummary(settings, results != null ? results : new LinkedHashMap<>());
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("settings", settings);
+        json.put("results", results);
+        OBJECT_MAPPER.writeValue(file.toFile(), json);
+    }
+
+    /**
+     * 결과마다 한 줄씩 표로 (로그 출력용)
+     */
+    String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-28s %10s %10s %8s %9s %9s %9s %9s %9s",
+                "route/mode", "requests", "req/s", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        results.forEach((key, result) -> table.append(String.format("%n%-28s %10.0f %10.1f %8.0f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                key, result.get("requests"), result.get("throughput"), result.get("errors"), result.get("p50Ms"),
+                result.get("p90Ms"), result.get("p99Ms"), result.get("p999Ms"), result.get("maxMs"))));
+        return table.toString();
+    }
+
+    /**
+     * @return 회귀 설명 목록 (비어 있으면 통과)
+     */
+    List<String> compareTo(LoadSummary baseline, double tolerance, double slackMs) {
+        List<String> regressions = new ArrayList<>();
+        baseline.results.forEach((key, expected) -> {
+            Map<String, Double> actual = results.get(key);
+            if (actual == null) {
+                regressions.add(key + ": missing");
+                return;
+            }
+            double p99Limit = expected.get("p99Ms") * (1 + tolerance) + slackMs;
+            if (actual.get("p99Ms") > p99Limit) {
+                regressions.add(String.format("%s: p99 %.2fms > %.2fms (baseline %.2fms)",
+                        key, actual.get("p99Ms"), p99Limit, expected.get("p99Ms")));
+            }
+            double throughputLimit = expected.get("throughput") * (1 - tolerance);
+            if (actual.get("throughput") < throughputLimit) {
+                regressions.add(String.format("%s: throughput %.1f/s < %.1f/s (baseline %.1f/s)",
+                        key, actual.get("throughput"), throughputLimit, expected.get("throughput")));
+            }
+            if (expected.get("errors") == 0 && actual.get("errors") > 0) {
+                regressions.add(String.format("%s: %.0f errors (baseline 0)", key, actual.get("errors")));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,44 @@
+package com.jonghak.springbootweb.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSummaryTest {
+
+    @Test
+    public void compareToBaseline(@TempDir Path directory) throws Exception {
+        Map<String, Map<String, Double>> baseline = new LinkedHashMap<>();
+        baseline.put("hello-path/open", result(200, 2.0, 0));
+        baseline.put("hello-path/closed", result(5000, 3.0, 0));
+        baseline.put("view-hi/open", result(200, 2.0, 0));
+        Path file = directory.resolve("baseline.json");
+        new LoadSummary(Collections.emptyMap(), baseline).write(file);
+
+        Map<String, Map<String, Double>> current = new LinkedHashMap<>();
+        current.put("hello-path/open", result(200, 3.2, 0));    // 2.0 * 1.2 + 1 = 3.4 이내
+        current.put("hello-path/closed", result(3000, 3.0, 2));
+        List<String> regressions = new LoadSummary(Collections.emptyMap(), current)
+                .compareTo(LoadSummary.read(file), 0.2, 1.0);
+
+        assertThat(regressions).hasSize(3);
+        assertThat(regressions.get(0)).startsWith("hello-path/closed: throughput");
+        assertThat(regressions.get(1)).startsWith("hello-path/closed: 2 errors");
+        assertThat(regressions.get(2)).isEqualTo("view-hi/open: missing");
+    }
+
+    private static Map<String, Double> result(double throughput, double p99Ms, double errors) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        result.put("throughput", throughput);
+        result.put("errors", errors);
+        result.put("p99Ms", p99Ms);
+        return result;
+    }
+}
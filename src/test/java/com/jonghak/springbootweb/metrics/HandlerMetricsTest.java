@@ -0,0 +1,53 @@
+package com.jonghak.springbootweb.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandlerMetricsTest {
+
+    @Test
+    public void overloadedMethodsGetSeparateNames() throws Exception {
+        HandlerMetrics metrics = new HandlerMetrics();
+        Overloaded controller = new Overloaded();
+        metrics.record(HandlerMetrics.Phase.REQUEST, null,
+                new HandlerMethod(controller, Overloaded.class.getMethod("find", String.class)), 1_000);
+        metrics.record(HandlerMetrics.Phase.REQUEST, null,
+                new HandlerMethod(controller, Overloaded.class.getMethod("find", Long.class, int.class)), 1_000);
+        metrics.record(HandlerMetrics.Phase.REQUEST, null,
+                new HandlerMethod(controller, Overloaded.class.getMethod("list")), 1_000);
+
+        assertThat(metrics.getHistograms(HandlerMetrics.Phase.REQUEST).stream()
+                .map(LatencyHistogram::getName).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("Overloaded#find(String)", "Overloaded#find(Long,int)", "Overloaded#list");
+    }
+
+    @Test
+    public void sameNameGetsSuffix() {
+        HandlerMetrics metrics = new HandlerMetrics();
+        metrics.record(HandlerMetrics.Phase.HANDLER, null, new Object(), 1_000);
+        metrics.record(HandlerMetrics.Phase.HANDLER, null, new Object(), 1_000);
+
+        assertThat(metrics.getHistograms(HandlerMetrics.Phase.HANDLER).stream()
+                .map(LatencyHistogram::getName).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("Object", "Object~2");
+    }
+
+    static class Overloaded {
+
+        public String find(String name) {
+            return name;
+        }
+
+        public String find(Long id, int size) {
+            return id + ":" + size;
+        }
+
+        public String list() {
+            return "";
+        }
+    }
+}
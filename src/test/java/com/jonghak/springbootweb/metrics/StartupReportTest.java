@@ -0,0 +1,30 @@
+package com.jonghak.springbootweb.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupReportTest {
+
+    @Test
+    public void selfTimeExcludesNestedBeans() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        StartupStep outer = startup.start("spring.beans.instantiate").tag("beanName", "outer");
+        Thread.sleep(20);
+        StartupStep inner = startup.start("spring.beans.instantiate").tag("beanName", "inner");
+        Thread.sleep(50);
+        inner.end();
+        outer.end();
+
+        List<StartupReport.BeanTiming> beans = StartupReport.beanTimings(startup.getBufferedTimeline());
+
+        assertThat(beans).extracting(StartupReport.BeanTiming::getName).containsExactly("inner", "outer");
+        StartupReport.BeanTiming outerTiming = beans.get(1);
+        assertThat(outerTiming.getTotalMillis()).isGreaterThanOrEqualTo(70);
+        assertThat(outerTiming.getSelfMillis()).isBetween(15L, outerTiming.getTotalMillis() - 50);
+    }
+}
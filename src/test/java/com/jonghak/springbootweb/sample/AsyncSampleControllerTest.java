@@ -0,0 +1,105 @@
+package com.jonghak.springbootweb.sample;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * sample.async.enabled=true : 같은 URL 을 AsyncSampleController 가 처리한다.
+ */
+@SpringBootTest(properties = "sample.async.enabled=true")
+@AutoConfigureMockMvc
+class AsyncSampleControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void hello() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/hello").param("name", "jonghak"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello jonghak"));
+    }
+
+    @Test
+    public void helloJpa() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("jonghak");
+        PersonEntity personEntity = personRepository.save(person);
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/hellojpa").param("id", personEntity.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello jonghak"));
+    }
+
+    @Test
+    public void helloJpaNotFound() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/hellojpa").param("id", "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void jsonMessage() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":2022,\"name\":\"jonghak\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2022))
+                .andExpect(jsonPath("$.name").value("jonghak"));
+    }
+
+    /**
+     * 인터셉터는 ASYNC 디스패치가 끝날 때 기록하고, executor 상태는 /metrics/executor 로 나온다.
+     */
+    @Test
+    public void metrics() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/hello").param("name", "jonghak"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/metrics/handlers"))
+                .andExpect(jsonPath("$.request['AsyncSampleController#getHelloParam'].count").value(Matchers.greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.handler['AsyncSampleController#getHelloParam'].count").value(Matchers.greaterThanOrEqualTo(1)));
+
+        this.mockMvc.perform(get("/metrics/executor"))
+                .andDo(print())
+                .andExpect(jsonPath("$['sample-async'].completedCount").value(Matchers.greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$['sample-async'].rejectedCount").value(0));
+
+        this.mockMvc.perform(get("/metrics/prometheus"))
+                .andExpect(content().string(Matchers.containsString("executor_rejected_total{executor=\"sample-async\"} 0")));
+    }
+}
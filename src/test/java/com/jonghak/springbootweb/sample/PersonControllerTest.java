@@ -0,0 +1,165 @@
+package com.jonghak.springbootweb.sample;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersonControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void createAndUpdate() throws Exception {
+        Number id = JsonPath.read(this.mockMvc.perform(post("/people")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"jonghak\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("jonghak"))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+
+        this.mockMvc.perform(put("/people/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"keesun\"}"))
+                .andExpect(status().isOk());
+        assertThat(personRepository.findById(id.longValue())).get()
+                .extracting(PersonEntity::getName).isEqualTo("keesun");
+
+        this.mockMvc.perform(put("/people/{id}", Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"keesun\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void bulkIngest() throws Exception {
+        long before = personRepository.count();
+        String ndjson = "{\"name\":\"jonghak\"}\n"
+                + "{\"name\":\"keesun\"}\n"
+                + "{\"id\":99,\"name\":\"whiteship\"}\n";
+
+        this.mockMvc.perform(post("/people/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.batches").value(1))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+        assertThat(personRepository.count()).isEqualTo(before + 3);
+    }
+
+    @Test
+    public void bulkIngestInvalidLine() throws Exception {
+        this.mockMvc.perform(post("/people/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"jonghak\"}\n{\"name\":"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportNdjson() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("export-ndjson");
+        PersonEntity saved = personRepository.save(person);
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/people/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n")).hasSize((int) personRepository.count());
+        assertThat(body).contains("{\"id\":" + saved.getId() + ",\"name\":\"export-ndjson\"}\n");
+    }
+
+    @Test
+    public void exportJsonAndXml() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("export");
+        personRepository.save(person);
+
+        MvcResult json = this.mockMvc.perform(get("/people/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value((int) personRepository.count()));
+
+        MvcResult xml = this.mockMvc.perform(get("/people/export").param("format", "xml"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(xml))
+                .andExpect(status().isOk())
+                .andExpect(xpath("count(people/person)").number((double) personRepository.count()));
+    }
+
+    @Test
+    public void exportUnknownFormat() throws Exception {
+        this.mockMvc.perform(get("/people/export").param("format", "csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void searchByNamePrefix() throws Exception {
+        for (String name : new String[]{"search-b", "search-a", "search-a", "searchless", "research"}) {
+            PersonEntity person = new PersonEntity();
+            person.setName(name);
+            personRepository.save(person);
+        }
+
+        String next = JsonPath.read(this.mockMvc.perform(get("/people/search")
+                        .param("prefix", "search-")
+                        .param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("search-a"))
+                .andExpect(jsonPath("$.items[1].name").value("search-a"))
+                .andExpect(jsonPath("$.next").isString())
+                .andReturn().getResponse().getContentAsString(), "$.next");
+
+        this.mockMvc.perform(get("/people/search")
+                        .param("prefix", "search-")
+                        .param("size", "2")
+                        .param("after", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("search-b"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        this.mockMvc.perform(get("/people/search").param("prefix", "search%")) // LIKE 와일드카드는 글자 그대로
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    public void searchInvalidCursor() throws Exception {
+        this.mockMvc.perform(get("/people/search")
+                        .param("prefix", "search")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,42 @@
+package com.jonghak.springbootweb.sample;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonNameIndexTest {
+
+    @Test
+    public void concurrentPutKeepsOneKeyPerId() {
+        PersonNameIndex index = new PersonNameIndex();
+        CountDownLatch ready = new CountDownLatch(1);
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int writer = thread;
+            writers.add(CompletableFuture.runAsync(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < 2000; i++) {
+                    index.put(1L, "name-" + writer + "-" + i);
+                }
+            }));
+        }
+        ready.countDown();
+        writers.forEach(CompletableFuture::join);
+
+        // 같은 id 를 동시에 바꿔도 이전 이름의 key 가 남지 않는다.
+        assertThat(index.search("name-", null, 100)).hasSize(1);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(1L);
+        assertThat(index.search("name-", null, 100)).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.jonghak.springbootweb.sample;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * person.search.in-memory-index=true : 저장/수정/삭제가 커밋 후 PersonNameIndex 에 반영된다.
+ */
+@SpringBootTest(properties = "person.search.in-memory-index=true")
+class PersonSearchServiceTest {
+
+    @Autowired
+    PersonSearchService personSearchService;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    PersonNameIndex personNameIndex;
+
+    @Test
+    public void inMemoryIndexFollowsChanges() {
+        PersonEntity first = new PersonEntity();
+        first.setName("memory-a");
+        first = personRepository.save(first);
+        PersonEntity second = new PersonEntity();
+        second.setName("memory-b");
+        second = personRepository.save(second);
+
+        assertThat(names(personSearchService.search("memory-", null, 10))).containsExactly("memory-a", "memory-b");
+
+        second.setName("memory-0");
+        personRepository.save(second);
+        personRepository.delete(first);
+
+        assertThat(names(personSearchService.search("memory-", null, 10))).containsExactly("memory-0");
+    }
+
+    @Test
+    public void keysetPagingOverIndex() {
+        personNameIndex.put(-1L, "page-x");
+        personNameIndex.put(-2L, "page-x");
+        personNameIndex.put(-3L, "page-y");
+
+        PersonSearchResult firstPage = personSearchService.search("page-", null, 2);
+        assertThat(firstPage.getItems()).extracting(Person::getId).containsExactly(-2L, -1L);
+
+        PersonSearchResult secondPage = personSearchService.search("page-", firstPage.getNext(), 2);
+        assertThat(secondPage.getItems()).extracting(Person::getId).containsExactly(-3L);
+        assertThat(secondPage.getNext()).isNull();
+    }
+
+    private static List<String> names(PersonSearchResult result) {
+        return result.getItems().stream().map(Person::getName).collect(Collectors.toList());
+    }
+}
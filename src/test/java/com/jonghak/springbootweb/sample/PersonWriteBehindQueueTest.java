@@ -0,0 +1,214 @@
+package com.jonghak.springbootweb.sample;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "person.write-behind.enabled=true",
+        "person.write-behind.flush-interval=10s" // 테스트 중에는 stop() 에서만 쓰도록
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+class PersonWriteBehindQueueTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    PersonWriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Test
+    public void writeBehind() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("write-behind");
+        Long id = personRepository.save(person).getId();
+        personRepository.findById(id); // 캐시에 올려 둔다
+        long before = personRepository.count();
+
+        this.mockMvc.perform(post("/people")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"jonghak\"}"))
+                .andExpect(status().isAccepted());
+        for (String name : new String[]{"keesun", "whiteship"}) {
+            this.mockMvc.perform(put("/people/{id}", id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"" + name + "\"}"))
+                    .andExpect(status().isAccepted());
+        }
+
+        this.mockMvc.perform(get("/metrics/write-behind"))
+                .andExpect(jsonPath("$.queueDepth").value(2))
+                .andExpect(jsonPath("$.submittedCount").value(3))
+                .andExpect(jsonPath("$.coalescedCount").value(1));
+        assertThat(personRepository.count()).isEqualTo(before);
+
+        writeBehindQueue.stop();
+
+        assertThat(personRepository.count()).isEqualTo(before + 1);
+        assertThat(personRepository.findById(id)).get()
+                .extracting(PersonEntity::getName).isEqualTo("whiteship");
+        assertThat(writeBehindQueue.getStats())
+                .containsEntry("queueDepth", 0)
+                .containsEntry("writtenCount", 2L)
+                .containsEntry("failedCount", 0L);
+
+        this.mockMvc.perform(post("/people")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"late\"}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void rejectWhenFull() throws Exception {
+        PersonWriteBehindQueue queue = new PersonWriteBehindQueue(null, null, null,
+                2, 10, Duration.ofSeconds(1), Duration.ofMillis(10), 3, Duration.ofSeconds(1));
+        queue.create("a");
+        queue.update(1L, "b");
+        queue.update(1L, "c"); // 같은 id 는 자리를 더 쓰지 않는다
+
+        assertThatThrownBy(() -> queue.create("d"))
+                .isInstanceOf(PersonWriteBehindQueue.WriteBehindRejectedException.class);
+        assertThat(queue.getStats())
+                .containsEntry("queueDepth", 2)
+                .containsEntry("coalescedCount", 1L)
+                .containsEntry("rejectedCount", 1L);
+    }
+
+    @Test
+    public void rejectWaitingSubmitOnStop() throws Exception {
+        PersonWriteBehindQueue queue = new PersonWriteBehindQueue(null, null, null,
+                1, 10, Duration.ofSeconds(1), Duration.ofSeconds(30), 3, Duration.ofSeconds(1));
+        queue.create("a");
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try {
+                queue.create("b"); // 큐가 가득 차서 offer-timeout 동안 기다린다
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        queue.stop();
+
+        assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(PersonWriteBehindQueue.WriteBehindRejectedException.class);
+        assertThat(queue.getStats()).containsEntry("rejectedCount", 1L);
+    }
+
+    @Test
+    public void retryFailedBatch() {
+        AtomicInteger failures = new AtomicInteger(1);
+        PlatformTransactionManager failingOnce = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new CannotCreateTransactionException("connection refused");
+                }
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.commit(status);
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        PersonWriteBehindQueue queue = new PersonWriteBehindQueue(personRepository, failingOnce, cacheManager,
+                10, 10, Duration.ofMillis(10), Duration.ofMillis(10), 3, Duration.ofSeconds(5));
+        long before = personRepository.count();
+        queue.start();
+        try {
+            queue.create("retry");
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            queue.stop();
+        }
+
+        // 첫 쓰기는 실패하고 큐로 돌아갔다가 다음 번에 쓰인다.
+        assertThat(personRepository.count()).isEqualTo(before + 1);
+        assertThat(queue.getStats())
+                .containsEntry("retriedCount", 1L)
+                .containsEntry("writtenCount", 1L)
+                .containsEntry("failedCount", 0L);
+    }
+
+    @Test
+    public void retryOnlyFailedUpdates() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("retry-update");
+        Long id = personRepository.save(person).getId();
+
+        AtomicInteger transactions = new AtomicInteger();
+        PlatformTransactionManager failingUpdatesOnce = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                if (transactions.incrementAndGet() == 2) { // 첫 배치의 수정 트랜잭션
+                    throw new CannotCreateTransactionException("connection refused");
+                }
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.commit(status);
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        PersonWriteBehindQueue queue = new PersonWriteBehindQueue(personRepository, failingUpdatesOnce, cacheManager,
+                10, 10, Duration.ofMillis(10), Duration.ofMillis(10), 3, Duration.ofSeconds(5));
+        long before = personRepository.count();
+        queue.create("retry-create");
+        queue.update(id, "retry-updated");
+        queue.start();
+        queue.stop();
+
+        // 새 엔티티는 첫 배치에서 커밋됐으므로 수정만 다시 쓰고, 새 엔티티는 한 번만 저장된다.
+        assertThat(personRepository.count()).isEqualTo(before + 1);
+        assertThat(personRepository.findById(id)).get()
+                .extracting(PersonEntity::getName).isEqualTo("retry-updated");
+        assertThat(queue.getStats())
+                .containsEntry("retriedCount", 1L)
+                .containsEntry("writtenCount", 2L)
+                .containsEntry("failedCount", 0L);
+    }
+}
@@ -1,21 +1,35 @@
 package com.jonghak.springbootweb.sample;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonghak.springbootweb.cache.ResponseCache;
+import com.jonghak.springbootweb.converter.PersonBinaryHttpMessageConverter;
+import com.jonghak.springbootweb.resource.StaticResourceCache;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.oxm.Marshaller;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.DigestUtils;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.stream.StreamResult;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -49,6 +63,15 @@ class SampleControllerTest {
     @Autowired
     Marshaller marshaller; // spring에서 제공하는, XML 컨버터의 추상클래스를 주입받는다. (Spring-oxm)
 
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    StaticResourceCache staticResourceCache;
+
+    @Autowired
+    ResponseCache responseCache;
+
     @Test
     public void hello() throws Exception {
         this.mockMvc.perform(get("/hello/jonghak"))
@@ -64,6 +87,37 @@ class SampleControllerTest {
                 .andExpect(content().string("hello jonghak"));
     }
 
+    @Test
+    public void helloResponseCache() throws Exception {
+        long hits = responseCache.stats().hitCount();
+
+        String etag = this.mockMvc.perform(get("/hello").param("name", "response-cache"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string("hello response-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/hello").param("name", "response-cache"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, "hello response-cache".length()))
+                .andExpect(content().string("hello response-cache"));
+
+        this.mockMvc.perform(get("/hello").param("name", "response-cache").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+
+        this.mockMvc.perform(get("/hello").param("name", "response-cache-2"))
+                .andExpect(content().string("hello response-cache-2"))
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+
+        Assertions.assertThat(responseCache.stats().hitCount()).isEqualTo(hits + 2);
+    }
+
     @Test
     public void helloJpa() throws Exception {
         /**
@@ -80,6 +134,88 @@ class SampleControllerTest {
                 .andExpect(content().string("hello jonghak"));
     }
 
+    /**
+     * 같은 id로 두 번 조회하면 두 번째는 캐시에서 읽고, 저장하면 캐시가 무효화되어 바뀐 이름이 보인다.
+     */
+    @Test
+    public void helloJpaCache() throws Exception {
+        PersonEntity person = new PersonEntity();
+        person.setName("jonghak");
+        PersonEntity personEntity = personRepository.save(person);
+        String id = personEntity.getId().toString();
+
+        this.mockMvc.perform(get("/hellojpa").param("id", id))
+                .andExpect(content().string("hello jonghak"));
+        long hitCount = personEntityCache().stats().hitCount();
+
+        this.mockMvc.perform(get("/hellojpa").param("id", id))
+                .andExpect(content().string("hello jonghak"));
+        Assertions.assertThat(personEntityCache().stats().hitCount()).isEqualTo(hitCount + 1);
+
+        personEntity.setName("keesun");
+        personRepository.save(personEntity);
+
+        this.mockMvc.perform(get("/hellojpa").param("id", id))
+                .andExpect(content().string("hello keesun"));
+
+        this.mockMvc.perform(get("/cache/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.personEntity.hitCount").isNumber())
+                .andExpect(jsonPath("$.personEntity.missCount").isNumber());
+    }
+
+    /**
+     * 인터셉터가 기록한 핸들러별 지연시간 조회
+     */
+    @Test
+    public void handlerMetrics() throws Exception {
+        this.mockMvc.perform(get("/hello/jonghak"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/hello").param("name", "jonghak")) // AnotherInterceptor 는 /hello* 에만 적용
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/metrics/handlers"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.request['SampleController#getHello'].count").value(Matchers.greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.handler['SampleController#getHelloParam'].count").value(Matchers.greaterThanOrEqualTo(1)));
+
+        this.mockMvc.perform(get("/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString(
+                        "http_handler_duration_seconds_count{handler=\"SampleController#getHello\",phase=\"request\"}")));
+    }
+
+    /**
+     * 리소스 핸들러가 둘(/mobile/**, /**)이라도 매핑 패턴으로 이름이 나뉘어서 Prometheus label 이 겹치지 않는다.
+     */
+    @Test
+    public void handlerMetricsUniqueNames() throws Exception {
+        this.mockMvc.perform(get("/index.html"))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/mobile/index.html"))
+                .andExpect(status().isOk());
+
+        String prometheus = this.mockMvc.perform(get("/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString(
+                        "http_handler_duration_seconds_count{handler=\"ResourceHttpRequestHandler[/**]\",phase=\"request\"}")))
+                .andExpect(content().string(Matchers.containsString(
+                        "http_handler_duration_seconds_count{handler=\"ResourceHttpRequestHandler[/mobile/**]\",phase=\"request\"}")))
+                .andReturn().getResponse().getContentAsString();
+        List<String> series = Arrays.stream(prometheus.split("\n"))
+                .filter(line -> line.startsWith("http_handler_duration_seconds_count{"))
+                .map(line -> line.substring(0, line.indexOf('}') + 1))
+                .collect(Collectors.toList());
+        Assertions.assertThat(series).doesNotHaveDuplicates();
+    }
+
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> personEntityCache() {
+        return ((CaffeineCache) cacheManager.getCache(PersonRepository.CACHE_NAME)).getNativeCache();
+    }
+
     /**
      * Spring boot에서 기본적으로 제공해주는 정적 리소스 핸들러와 캐싱 테스트
      * resources/static/index.html
@@ -93,6 +229,17 @@ class SampleControllerTest {
                 .andExpect(content().string(Matchers.containsString("hello index")));
     }
 
+    /**
+     * /** 를 다시 등록해도 부트 기본 위치(classpath:/public/ 등)는 그대로 찾는다.
+     * resources/public/public.html (테스트 리소스)
+     */
+    @Test
+    public void indexFromDefaultLocations() throws Exception {
+        this.mockMvc.perform(get("/public.html"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("hello public")));
+    }
+
     /**
      * 임의의 리소소 핸들러를 설정 테스트
      * resources/static/mobile/index.html
@@ -107,6 +254,76 @@ class SampleControllerTest {
                 .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
     }
 
+    /**
+     * 빌드 시 미리 만든 index.html.gz 를 Accept-Encoding 에 따라 그대로 내려준다.
+     */
+    @Test
+    public void indexMobileGzip() throws Exception {
+        this.mockMvc.perform(get("/mobile/index.html")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_HTML));
+    }
+
+    /**
+     * 내용 해시가 붙은 경로는 1년 immutable 캐시 + strong ETag, If-None-Match 가 같으면 304
+     */
+    @Test
+    public void indexMobileVersioned() throws Exception {
+        String hash = DigestUtils.md5DigestAsHex(new ClassPathResource("mobile/index.html").getInputStream());
+
+        this.mockMvc.perform(get("/mobile/index-" + hash + ".html"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("hello mobile")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""));
+
+        this.mockMvc.perform(get("/index-" + hash + ".html")) // 해시가 static/index.html 내용과 다름
+                .andExpect(status().isNotFound());
+
+        this.mockMvc.perform(get("/mobile/index-" + hash + ".html")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "-gzip\""));
+
+        this.mockMvc.perform(get("/mobile/index-" + hash + ".html")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andExpect(content().string(""));
+
+        this.mockMvc.perform(get("/mobile/index-" + hash + ".html")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * 정적 리소스 본문은 StaticResourceCache 에서 내려주고, If-Modified-Since 는 304
+     */
+    @Test
+    public void indexFromStaticResourceCache() throws Exception {
+        long hits = staticResourceCache.stats().hitCount();
+
+        String lastModified = this.mockMvc.perform(get("/index.html"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("hello index")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        this.mockMvc.perform(get("/index.html"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("hello index")));
+
+        Assertions.assertThat(staticResourceCache.stats().hitCount()).isGreaterThan(hits);
+
+        this.mockMvc.perform(get("/index.html")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     public void stringMessage() throws Exception {
         this.mockMvc.perform(get("/message")
@@ -159,6 +376,101 @@ class SampleControllerTest {
                 .andExpect(xpath("person/id").string("2022"));
     }
 
+    /**
+     * List<Person> XML 은 PersonXmlHttpMessageConverter 가 <people> 아래 <person> 단위로 스트리밍 처리
+     */
+    @Test
+    public void xmlMessages() throws Exception {
+        String xmlString = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<people>\n"
+                + "  <person><id>1</id><name>jonghak</name></person>\n"
+                + "  <person><id>2</id><name>keesun</name></person>\n"
+                + "</people>";
+
+        this.mockMvc.perform(get("/jsonMessages")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.APPLICATION_XML)
+                        .content(xmlString))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(xpath("count(people/person)").number(2.0))
+                .andExpect(xpath("people/person[2]/name").string("keesun"))
+                .andExpect(xpath("people/person[2]/id").string("2"));
+    }
+
+    /**
+     * 요소 이름이 <person> / <people> 가 아니면 Person 으로 읽지 않는다. (400)
+     */
+    @Test
+    public void xmlMessageWrongElement() throws Exception {
+        this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.APPLICATION_XML)
+                        .content("<foo><id>1</id><name>jonghak</name></foo>"))
+                .andExpect(status().isBadRequest());
+
+        this.mockMvc.perform(get("/jsonMessages")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.APPLICATION_XML)
+                        .content("<foo><person><id>1</id><name>jonghak</name></person></foo>"))
+                .andExpect(status().isBadRequest());
+
+        this.mockMvc.perform(get("/jsonMessages")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.APPLICATION_XML)
+                        .content("<people><person><id>1</id><name>jonghak</name></person><bar><id>2</id></bar></people>"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * application/x-person : flags(id, name) + zigzag varint id + varint 길이 + UTF-8 name
+     */
+    @Test
+    public void binaryMessage() throws Exception {
+        byte[] body = new byte[]{0x03, (byte) 0xCC, 0x1F, 0x07, 'j', 'o', 'n', 'g', 'h', 'a', 'k'};
+
+        this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(PersonBinaryHttpMessageConverter.PERSON_BINARY)
+                        .accept(PersonBinaryHttpMessageConverter.PERSON_BINARY)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PersonBinaryHttpMessageConverter.PERSON_BINARY))
+                .andExpect(content().bytes(body));
+    }
+
+    @Test
+    public void binaryMessages() throws Exception {
+        Person jonghak = new Person();
+        jonghak.setName("종학");
+        Person keesun = new Person();
+        keesun.setId(-1L);
+        keesun.setName("keesun");
+        PersonBinaryHttpMessageConverter converter = new PersonBinaryHttpMessageConverter();
+        MockHttpOutputMessage request = new MockHttpOutputMessage();
+        converter.write(List.of(jonghak, keesun), null, PersonBinaryHttpMessageConverter.PERSON_BINARY, request);
+
+        byte[] response = this.mockMvc.perform(get("/jsonMessages")
+                        .contentType(PersonBinaryHttpMessageConverter.PERSON_BINARY)
+                        .accept(PersonBinaryHttpMessageConverter.PERSON_BINARY)
+                        .content(request.getBodyAsBytes()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        @SuppressWarnings("unchecked")
+        List<Person> people = (List<Person>) converter.read(new ParameterizedTypeReference<List<Person>>() {
+        }.getType(), null, new MockHttpInputMessage(response));
+        Assertions.assertThat(people).extracting(Person::getId, Person::getName)
+                .containsExactly(Assertions.tuple(null, "종학"), Assertions.tuple(-1L, "keesun"));
+    }
+
+    @Test
+    public void binaryMessageTruncated() throws Exception {
+        this.mockMvc.perform(get("/jsonMessage")
+                        .contentType(PersonBinaryHttpMessageConverter.PERSON_BINARY)
+                        .content(new byte[]{0x03, (byte) 0xCC, 0x1F, 0x07, 'j', 'o'}))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void viewControllerHi() throws Exception {
         this.mockMvc.perform(get("/hi"))
@@ -0,0 +1,42 @@
+package com.jonghak.springbootweb.sample;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "person.sharding.enabled=true",
+        "person.sharding.range-size=1000",
+        "person.sharding.data-sources[0].url=jdbc:h2:mem:person-range-shard-1"
+})
+class ShardedPersonRepositoryRangeTest {
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Test
+    public void sequenceStopsAtRangeEnd() {
+        ShardedPersonRepository sharded = (ShardedPersonRepository) personRepository;
+        assertThat(sharded.getShardCount()).isEqualTo(2);
+
+        // shard 0 은 범위 [0, 1000) 를 다 쓰면 다음 범위 id 를 만들지 않고 저장이 실패한다.
+        List<Long> ids = new ArrayList<>();
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 4000; i++) {
+                PersonEntity person = new PersonEntity();
+                person.setName("range-" + i);
+                ids.add(personRepository.save(person).getId());
+            }
+        }).isInstanceOf(DataAccessException.class);
+
+        assertThat(ids).allSatisfy(id -> assertThat(personRepository.findById(id)).isPresent());
+        assertThat(ids.stream().filter(id -> sharded.shardIndexOf(id) == 0)).allMatch(id -> id < 1000);
+    }
+}
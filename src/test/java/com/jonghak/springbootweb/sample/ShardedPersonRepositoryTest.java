@@ -0,0 +1,170 @@
+package com.jonghak.springbootweb.sample;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"person.sharding.enabled=true", "person.bulk.batch-size=2"})
+@AutoConfigureMockMvc
+class ShardedPersonRepositoryTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PersonRepository personRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Test
+    public void routeById() throws Exception {
+        ShardedPersonRepository sharded = (ShardedPersonRepository) personRepository;
+        assertThat(sharded.getShardCount()).isEqualTo(3);
+        long before = personRepository.count();
+
+        List<PersonEntity> saved = new ArrayList<>();
+        for (String name : new String[]{"shard-c", "shard-a", "shard-b"}) {
+            PersonEntity person = new PersonEntity();
+            person.setName(name);
+            saved.add(personRepository.save(person));
+        }
+
+        // 새 엔티티는 shard 를 돌아가며 저장되고, 시퀀스가 만든 id 로 같은 shard 를 다시 찾아간다.
+        assertThat(saved.stream().map(person -> sharded.shardIndexOf(person.getId())).collect(Collectors.toSet()))
+                .containsExactlyInAnyOrder(0, 1, 2);
+        for (PersonEntity person : saved) {
+            assertThat(personRepository.findById(person.getId())).get()
+                    .extracting(PersonEntity::getName).isEqualTo(person.getName());
+        }
+        assertThat(personRepository.count()).isEqualTo(before + 3);
+        assertThat(personRepository.findAllById(saved.stream().map(PersonEntity::getId).collect(Collectors.toList())))
+                .hasSize(3);
+
+        PersonEntity last = saved.stream().filter(person -> sharded.shardIndexOf(person.getId()) == 2).findFirst().get();
+        this.mockMvc.perform(put("/people/{id}", last.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"shard-z\"}"))
+                .andExpect(status().isOk());
+        assertThat(personRepository.findById(last.getId())).get()
+                .extracting(PersonEntity::getName).isEqualTo("shard-z");
+    }
+
+    @Test
+    public void scatterGather() throws Exception {
+        for (String name : new String[]{"gather-d", "gather-b", "gather-c", "gather-a"}) {
+            PersonEntity person = new PersonEntity();
+            person.setName(name);
+            personRepository.save(person);
+        }
+
+        this.mockMvc.perform(get("/people/search").param("prefix", "gather-").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].name").value(contains("gather-a", "gather-b", "gather-c")))
+                .andExpect(jsonPath("$.next").isString());
+
+        List<PersonEntity> all = personRepository.findAll(Sort.by("name"));
+        assertThat(all).extracting(PersonEntity::getName).isSortedAccordingTo(
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        assertThat(personRepository.findAll(PageRequest.of(1, 2, Sort.by("id"))).getContent())
+                .extracting(PersonEntity::getId)
+                .containsExactly(personRepository.findAll(Sort.by("id")).subList(2, 4).stream()
+                        .map(PersonEntity::getId).toArray(Long[]::new));
+
+        // keyset 페이지는 shard 경계를 넘어 id 순서대로 이어진다.
+        List<Long> ids = new ArrayList<>();
+        long lastId = Long.MIN_VALUE;
+        List<PersonEntity> page;
+        while (!(page = personRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(2))).isEmpty()) {
+            page.forEach(person -> ids.add(person.getId()));
+            lastId = page.get(page.size() - 1).getId();
+        }
+        assertThat(ids).hasSize((int) personRepository.count()).isSorted();
+    }
+
+    @Test
+    public void fluentQuery() {
+        for (String name : new String[]{"fluent-c", "fluent-a", "fluent-d", "fluent-b"}) {
+            PersonEntity person = new PersonEntity();
+            person.setName(name);
+            personRepository.save(person);
+        }
+        PersonEntity probe = new PersonEntity();
+        probe.setName("fluent-");
+        Example<PersonEntity> example = Example.of(probe, ExampleMatcher.matching()
+                .withMatcher("name", ExampleMatcher.GenericPropertyMatchers.startsWith()));
+
+        // shard 마다 실행한 결과를 합쳐서 다시 정렬한다.
+        List<PersonEntity> sorted = personRepository.findBy(example, query -> query.sortBy(Sort.by("name")).all());
+        assertThat(sorted).extracting(PersonEntity::getName).containsExactly("fluent-a", "fluent-b", "fluent-c", "fluent-d");
+        PersonEntity last = personRepository.findBy(example, query -> query.sortBy(Sort.by("name").descending()).firstValue());
+        assertThat(last.getName()).isEqualTo("fluent-d");
+        Page<PersonEntity> page = personRepository.findBy(example, query -> query.sortBy(Sort.by("name")).page(PageRequest.of(1, 2)));
+        assertThat(page.getContent()).extracting(PersonEntity::getName).containsExactly("fluent-c", "fluent-d");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(personRepository.<PersonEntity, Long>findBy(example, FluentQuery.FetchableFluentQuery::count)).isEqualTo(4);
+        assertThat(personRepository.<PersonEntity, Boolean>findBy(example, FluentQuery.FetchableFluentQuery::exists)).isTrue();
+        assertThatThrownBy(() -> personRepository.findBy(example, FluentQuery.FetchableFluentQuery::oneValue))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+    }
+
+    @Test
+    public void bulkIngestSpreadsAcrossShards() throws Exception {
+        ShardedPersonRepository sharded = (ShardedPersonRepository) personRepository;
+        PersonEntity cached = new PersonEntity();
+        cached.setName("bulk-cached");
+        cached = personRepository.save(cached);
+        personRepository.findById(cached.getId());
+        assertThat(cacheManager.getCache(PersonRepository.CACHE_NAME).get(cached.getId())).isNotNull();
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            ndjson.append("{\"name\":\"bulk-").append(i).append("\"}\n");
+        }
+        this.mockMvc.perform(post("/people/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(6));
+
+        PersonEntity probe = new PersonEntity();
+        probe.setName("bulk-");
+        List<PersonEntity> stored = personRepository.findAll(Example.of(probe, ExampleMatcher.matching()
+                .withMatcher("name", ExampleMatcher.GenericPropertyMatchers.startsWith())));
+        // 배치(2 개)마다 shard 를 돌아가고, 배치 하나는 한 shard 에 저장된다.
+        Map<String, Integer> shardByName = stored.stream().filter(person -> !person.getName().equals("bulk-cached"))
+                .collect(Collectors.toMap(PersonEntity::getName, person -> sharded.shardIndexOf(person.getId())));
+        assertThat(shardByName).hasSize(6);
+        assertThat(shardByName.get("bulk-1")).isEqualTo(shardByName.get("bulk-0"));
+        assertThat(shardByName.get("bulk-3")).isEqualTo(shardByName.get("bulk-2"));
+        assertThat(shardByName.get("bulk-5")).isEqualTo(shardByName.get("bulk-4"));
+        assertThat(shardByName.values()).containsOnly(0, 1, 2).contains(0, 1, 2);
+        // 새 엔티티만 저장했으므로 findById 캐시는 그대로다.
+        assertThat(cacheManager.getCache(PersonRepository.CACHE_NAME).get(cached.getId())).isNotNull();
+    }
+}